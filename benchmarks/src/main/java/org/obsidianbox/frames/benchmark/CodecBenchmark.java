@@ -0,0 +1,203 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.Anchor;
+import org.obsidianbox.frames.RenderPriority;
+import org.obsidianbox.frames.util.StringDictionary;
+import org.obsidianbox.frames.util.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the generated ReferenceLabelCodec, with and without a string dictionary, against an equivalent hand-written codec,
+ * for screens of increasing size. The dictionary benchmarks start each invocation with new dictionaries, as a new connection
+ * does, so every invocation writes and reads the same bytes; creating the dictionaries is part of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CodecBenchmark {
+    @Param({"10", "100", "1000"})
+    public int widgets;
+
+    private ReferenceLabel[] labels;
+    private ReferenceLabel target;
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream out;
+    private byte[] generatedEncoded;
+    private byte[] handWrittenEncoded;
+    private byte[] dictionaryEncoded;
+
+    @Setup
+    public void setup() throws IOException {
+        labels = new ReferenceLabel[widgets];
+        for (int i = 0; i < widgets; i++) {
+            labels[i] = ReferenceLabel.create(i);
+        }
+        target = new ReferenceLabel();
+        bytes = new ByteArrayOutputStream();
+        out = new DataOutputStream(bytes);
+        generatedEncoded = encodeGenerated();
+        handWrittenEncoded = encodeHandWritten();
+        dictionaryEncoded = encodeGeneratedDictionary();
+    }
+
+    private static StringDictionary newDictionary() {
+        return new StringDictionary(256, 64);
+    }
+
+    @Benchmark
+    public byte[] encodeGenerated() throws IOException {
+        bytes.reset();
+        for (ReferenceLabel label : labels) {
+            ReferenceLabelCodec.write(label, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeGeneratedDictionary() throws IOException {
+        bytes.reset();
+        final StringDictionary dictionary = newDictionary();
+        for (ReferenceLabel label : labels) {
+            ReferenceLabelCodec.write(label, out, dictionary);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeHandWritten() throws IOException {
+        bytes.reset();
+        for (ReferenceLabel label : labels) {
+            write(label, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public ReferenceLabel decodeGenerated() throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(generatedEncoded));
+        for (int i = 0; i < widgets; i++) {
+            ReferenceLabelCodec.read(target, in, null);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public ReferenceLabel decodeGeneratedDictionary() throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(dictionaryEncoded));
+        final StringDictionary dictionary = newDictionary();
+        for (int i = 0; i < widgets; i++) {
+            ReferenceLabelCodec.read(target, in, null, dictionary);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public ReferenceLabel decodeHandWritten() throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(handWrittenEncoded));
+        for (int i = 0; i < widgets; i++) {
+            read(target, in);
+        }
+        return target;
+    }
+
+    /**
+     * The fixed-order codec a widget implementation would write by hand, without tags or versioning.
+     */
+    private static void write(ReferenceLabel label, DataOutput out) throws IOException {
+        WireFormat.writeUUID(out, label.id);
+        WireFormat.writeString(out, label.plugin);
+        WireFormat.writeSignedVarInt(out, label.x);
+        WireFormat.writeSignedVarInt(out, label.y);
+        WireFormat.writeSignedVarInt(out, label.width);
+        WireFormat.writeSignedVarInt(out, label.height);
+        int flags = 0;
+        flags = WireFormat.setFlag(flags, 0, label.visible);
+        flags = WireFormat.setFlag(flags, 1, label.shadow);
+        WireFormat.writeVarInt(out, flags);
+        WireFormat.writeVarInt(out, label.priority.getId());
+        WireFormat.writeVarInt(out, label.anchor.getId());
+        WireFormat.writeSignedVarInt(out, label.marginTop);
+        WireFormat.writeSignedVarInt(out, label.marginRight);
+        WireFormat.writeSignedVarInt(out, label.marginBottom);
+        WireFormat.writeSignedVarInt(out, label.marginLeft);
+        WireFormat.writeString(out, label.text);
+        out.writeFloat(label.scale);
+        WireFormat.writeVarInt(out, label.items.size());
+        for (String item : label.items) {
+            WireFormat.writeString(out, item);
+        }
+    }
+
+    private static void read(ReferenceLabel label, DataInput in) throws IOException {
+        label.id = WireFormat.readUUID(in);
+        label.plugin = WireFormat.readString(in);
+        label.x = WireFormat.readSignedVarInt(in);
+        label.y = WireFormat.readSignedVarInt(in);
+        label.width = WireFormat.readSignedVarInt(in);
+        label.height = WireFormat.readSignedVarInt(in);
+        final int flags = WireFormat.readVarInt(in);
+        label.visible = WireFormat.getFlag(flags, 0);
+        label.shadow = WireFormat.getFlag(flags, 1);
+        label.priority = RenderPriority.getRenderPriorityFromId(WireFormat.readVarInt(in));
+        label.anchor = Anchor.getAnchorFromId(WireFormat.readVarInt(in));
+        label.marginTop = WireFormat.readSignedVarInt(in);
+        label.marginRight = WireFormat.readSignedVarInt(in);
+        label.marginBottom = WireFormat.readSignedVarInt(in);
+        label.marginLeft = WireFormat.readSignedVarInt(in);
+        label.text = WireFormat.readString(in);
+        label.scale = in.readFloat();
+        final int size = WireFormat.readVarInt(in);
+        final List<String> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(WireFormat.readString(in));
+        }
+        label.items = items;
+    }
+}
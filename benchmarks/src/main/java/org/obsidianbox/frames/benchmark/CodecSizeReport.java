@@ -0,0 +1,109 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.util.StringDictionary;
+import org.obsidianbox.frames.util.WireFormat;
+
+/**
+ * <p>Prints the encoded size of the reference widgets in NBT and in the binary codec, run by the codecReport task.
+ *
+ * <p>Trees of increasing size are written as one NBT root, the way toNBT() nests children, and as the toBinary() of each of
+ * their widgets, with and without a {@link org.obsidianbox.frames.util.StringDictionary}. toBinary() leaves out the child
+ * links, which a stream frame sends as a type id per widget, so those are counted as one varint each. Labels are written with
+ * the generated ReferenceLabelCodec, which has no NBT counterpart.
+ */
+public final class CodecSizeReport {
+    private static final String ROW = "%-24s %10s %10s %12s %7s%n";
+
+    private CodecSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf(ROW, "Payload", "NBT", "Binary", "Dictionary", "Ratio");
+        for (int size : new int[] {10, 100, 1000}) {
+            for (ContainerType layout : new ContainerType[] {ContainerType.VERTICAL, ContainerType.GRID}) {
+                reportTree(layout, size);
+            }
+        }
+        for (int size : new int[] {10, 100, 1000}) {
+            reportLabels(size);
+        }
+    }
+
+    private static void reportTree(ContainerType layout, int size) throws IOException {
+        final ReferenceScreen screen = new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT);
+        final ReferenceContainer root = ReferenceTree.build(screen, layout, size, 3);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final ReferenceCompound tags = new ReferenceCompound();
+        root.toNBT(tags);
+        tags.write(out);
+        final int nbt = bytes.size();
+        final IWidget[] widgets = screen.getAttachedWidgets(true);
+        final int binary = writeBinary(widgets, null);
+        final int dictionary = writeBinary(widgets, new StringDictionary(256, 64));
+        print(layout.name().charAt(0) + layout.name().substring(1).toLowerCase() + " tree, " + widgets.length, nbt, binary, dictionary);
+    }
+
+    private static int writeBinary(IWidget[] widgets, StringDictionary dictionary) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (IWidget widget : widgets) {
+            WireFormat.writeVarInt(out, widget.getType().getId());
+            widget.toBinary(out, dictionary);
+        }
+        return bytes.size();
+    }
+
+    private static void reportLabels(int size) throws IOException {
+        final ReferenceLabel[] labels = new ReferenceLabel[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = ReferenceLabel.create(i);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (ReferenceLabel label : labels) {
+            ReferenceLabelCodec.write(label, out);
+        }
+        final int binary = bytes.size();
+        bytes.reset();
+        final StringDictionary dictionary = new StringDictionary(256, 64);
+        for (ReferenceLabel label : labels) {
+            ReferenceLabelCodec.write(label, out, dictionary);
+        }
+        print("Labels, " + size, -1, binary, bytes.size());
+    }
+
+    private static void print(String payload, int nbt, int binary, int dictionary) {
+        System.out.printf(ROW, payload, nbt < 0 ? "-" : Integer.toString(nbt), binary, dictionary,
+                nbt < 0 ? "-" : String.format("%.2f", (double) nbt / dictionary));
+    }
+}
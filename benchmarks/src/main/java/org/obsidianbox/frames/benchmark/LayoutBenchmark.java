@@ -0,0 +1,72 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full IContainer.updateLayout() pass over trees of increasing size and depth, for each ContainerType.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LayoutBenchmark {
+    @Param({"HORIZONTAL", "VERTICAL", "OVERLAY", "GRID"})
+    public ContainerType layout;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"1", "2", "4"})
+    public int depth;
+
+    private ReferenceContainer root;
+
+    @Setup
+    public void setup() {
+        root = ReferenceTree.build(new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT), layout, size, depth);
+    }
+
+    @Benchmark
+    public IContainer updateLayout() {
+        return root.invalidateLayout().updateLayout();
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.IWidgetVisitor;
+import org.obsidianbox.frames.VisitResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures id lookups with IScreen.getWidget(UUID) and collecting every widget with getAttachedWidgets(true), compared to
+ * walking them with visitWidgets(), for trees of increasing size and depth.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"1", "2", "4"})
+    public int depth;
+
+    private ReferenceScreen screen;
+    private UUID[] ids;
+    private UUID[] missing;
+    private int next;
+    private int visited;
+    private IWidgetVisitor counter;
+
+    @Setup
+    public void setup() {
+        screen = new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT);
+        ReferenceTree.build(screen, ContainerType.VERTICAL, size, depth);
+        final IWidget[] widgets = screen.getAttachedWidgets(true);
+        final Random random = new Random(42);
+        ids = new UUID[LOOKUPS];
+        missing = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = widgets[random.nextInt(widgets.length)].getId();
+            missing[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        counter = new IWidgetVisitor() {
+            @Override
+            public VisitResult visit(IWidget widget) {
+                visited++;
+                return VisitResult.CONTINUE;
+            }
+        };
+    }
+
+    @Benchmark
+    public IWidget getWidget() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return screen.getWidget(ids[next]);
+    }
+
+    @Benchmark
+    public IWidget getWidgetMissing() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return screen.getWidget(missing[next]);
+    }
+
+    @Benchmark
+    public IWidget[] getAttachedWidgetsRecursive() {
+        return screen.getAttachedWidgets(true);
+    }
+
+    @Benchmark
+    public int visitWidgetsRecursive() {
+        visited = 0;
+        screen.visitWidgets(counter, true);
+        return visited;
+    }
+}
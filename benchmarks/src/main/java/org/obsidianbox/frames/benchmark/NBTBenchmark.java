@@ -0,0 +1,89 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.ContainerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures toNBT() and fromNBT() of whole container trees of increasing size and depth, using the in-memory ReferenceCompound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NBTBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"1", "2", "4"})
+    public int depth;
+
+    private ReferenceContainer root;
+    private ReferenceCompound encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        root = ReferenceTree.build(new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT), ContainerType.VERTICAL, size, depth);
+        encoded = toNBT();
+    }
+
+    @Benchmark
+    public ReferenceCompound toNBT() throws IOException {
+        final ReferenceCompound compound = new ReferenceCompound();
+        root.toNBT(compound);
+        return compound;
+    }
+
+    @Benchmark
+    public ReferenceContainer fromNBT() throws IOException {
+        final ReferenceContainer container = new ReferenceContainer();
+        container.fromNBT(encoded);
+        return container;
+    }
+
+    @Benchmark
+    public ReferenceContainer roundTrip() throws IOException {
+        final ReferenceCompound compound = new ReferenceCompound();
+        root.toNBT(compound);
+        final ReferenceContainer container = new ReferenceContainer();
+        container.fromNBT(compound);
+        return container;
+    }
+}
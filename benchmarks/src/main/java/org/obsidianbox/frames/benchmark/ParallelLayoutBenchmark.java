@@ -0,0 +1,124 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IContainer;
+import org.obsidianbox.frames.IWidget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares serial and parallel layout of a dashboard, a row of sibling columns each holding panels of widgets, to find the
+ * screen size at which IContainer.setParallelLayout() starts to pay off.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelLayoutBenchmark {
+    private static final int PANEL_SIZE = 32;
+
+    @Param({"500", "2000", "10000", "50000"})
+    public int size;
+
+    @Param({"2", "4", "8"})
+    public int columns;
+
+    @Param({"256"})
+    public int threshold;
+
+    private ReferenceContainer serial;
+    private ReferenceContainer parallel;
+
+    @Setup
+    public void setup() {
+        serial = dashboard(false);
+        parallel = dashboard(true);
+        assertSameLayout(serial, parallel);
+    }
+
+    /**
+     * Fails if the two trees, built alike, were not laid out to the same bounds.
+     */
+    private static void assertSameLayout(IWidget expected, IWidget actual) {
+        if (!expected.getBounds().equals(actual.getBounds())) {
+            throw new IllegalStateException("Parallel layout put a widget at " + actual.getBounds() + " instead of " + expected.getBounds());
+        }
+        if (expected instanceof IContainer) {
+            final IContainer container = (IContainer) expected;
+            for (int i = 0; i < container.getChildCount(); i++) {
+                assertSameLayout(container.getChild(i), ((IContainer) actual).getChild(i));
+            }
+        }
+    }
+
+    private ReferenceContainer dashboard(boolean parallelLayout) {
+        final ReferenceContainer root = new ReferenceContainer(ContainerType.HORIZONTAL);
+        root.setBounds(0, 0, ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT);
+        root.setParallelLayout(parallelLayout).setParallelThreshold(threshold);
+        int leaves = 0;
+        for (int c = 0; c < columns; c++) {
+            final ReferenceContainer column = new ReferenceContainer(ContainerType.VERTICAL);
+            column.setParallelThreshold(threshold);
+            for (int p = 0; p < size / columns / PANEL_SIZE; p++) {
+                final ReferenceContainer panel = new ReferenceContainer(ContainerType.GRID);
+                panel.setMargin(2);
+                for (int i = 0; i < PANEL_SIZE; i++) {
+                    final ReferenceWidget leaf = new ReferenceWidget(16 + leaves % 5 * 4, 8 + leaves % 3 * 2);
+                    leaf.setMargin(1);
+                    panel.addChild(leaf);
+                    leaves++;
+                }
+                column.addChild(panel);
+            }
+            root.addChild(column);
+        }
+        new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT).attachWidget("Benchmark", root);
+        return (ReferenceContainer) root.updateLayout();
+    }
+
+    @Benchmark
+    public IContainer serial() {
+        return serial.invalidateLayout().updateLayout();
+    }
+
+    @Benchmark
+    public IContainer parallel() {
+        return parallel.invalidateLayout().updateLayout();
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.obsidianbox.frames.NBTTagCompound;
+
+/**
+ * In-memory {@link org.obsidianbox.frames.NBTTagCompound} holding boxed values by key, standing in for the game's compound
+ * tag so toNBT() and fromNBT() of the reference widgets can be measured. write() produces the binary NBT format the game
+ * sends, so the size of the NBT path can be compared with the binary codec.
+ */
+public class ReferenceCompound implements NBTTagCompound {
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private final HashMap<String, Object> tags = new HashMap<>();
+
+    public void setInt(String key, int value) {
+        tags.put(key, value);
+    }
+
+    public int getInt(String key) {
+        final Object value = tags.get(key);
+        return value == null ? 0 : (Integer) value;
+    }
+
+    public void setLong(String key, long value) {
+        tags.put(key, value);
+    }
+
+    public long getLong(String key) {
+        final Object value = tags.get(key);
+        return value == null ? 0 : (Long) value;
+    }
+
+    public void setFloat(String key, float value) {
+        tags.put(key, value);
+    }
+
+    public float getFloat(String key) {
+        final Object value = tags.get(key);
+        return value == null ? 0 : (Float) value;
+    }
+
+    public void setBoolean(String key, boolean value) {
+        tags.put(key, value ? (byte) 1 : (byte) 0);
+    }
+
+    public boolean getBoolean(String key) {
+        final Object value = tags.get(key);
+        return value != null && (Byte) value != 0;
+    }
+
+    public void setString(String key, String value) {
+        tags.put(key, value);
+    }
+
+    public String getString(String key) {
+        return (String) tags.get(key);
+    }
+
+    public void setList(String key, List<ReferenceCompound> value) {
+        tags.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ReferenceCompound> getList(String key) {
+        final Object value = tags.get(key);
+        return value == null ? new ArrayList<ReferenceCompound>() : (List<ReferenceCompound>) value;
+    }
+
+    public boolean hasKey(String key) {
+        return tags.containsKey(key);
+    }
+
+    /**
+     * Writes this compound as an unnamed root tag in binary NBT, uncompressed, as the game writes it into a packet.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the output fails.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(TAG_COMPOUND);
+        out.writeUTF("");
+        writePayload(out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writePayload(DataOutput out) throws IOException {
+        for (Map.Entry<String, Object> entry : tags.entrySet()) {
+            final Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            final String key = entry.getKey();
+            if (value instanceof Byte) {
+                writeName(out, TAG_BYTE, key);
+                out.writeByte((Byte) value);
+            } else if (value instanceof Integer) {
+                writeName(out, TAG_INT, key);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                writeName(out, TAG_LONG, key);
+                out.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                writeName(out, TAG_FLOAT, key);
+                out.writeFloat((Float) value);
+            } else if (value instanceof String) {
+                writeName(out, TAG_STRING, key);
+                out.writeUTF((String) value);
+            } else {
+                final List<ReferenceCompound> list = (List<ReferenceCompound>) value;
+                writeName(out, TAG_LIST, key);
+                // Empty lists are written with the element type of TAG_End, as the game does
+                out.writeByte(list.isEmpty() ? TAG_END : TAG_COMPOUND);
+                out.writeInt(list.size());
+                for (ReferenceCompound element : list) {
+                    element.writePayload(out);
+                }
+            }
+        }
+        out.writeByte(TAG_END);
+    }
+
+    private static void writeName(DataOutput out, int type, String name) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(name);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ReferenceCompound && tags.equals(((ReferenceCompound) obj).tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return tags.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return tags.toString();
+    }
+}
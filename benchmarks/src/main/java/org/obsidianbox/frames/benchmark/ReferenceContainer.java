@@ -0,0 +1,1170 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.awt.Dimension;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.obsidianbox.frames.Anchor;
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IContainer;
+import org.obsidianbox.frames.IGridTrack;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.IWidgetFilter;
+import org.obsidianbox.frames.IWidgetVisitor;
+import org.obsidianbox.frames.NBTTagCompound;
+import org.obsidianbox.frames.TrackSizing;
+import org.obsidianbox.frames.VisitResult;
+import org.obsidianbox.frames.WidgetProperty;
+import org.obsidianbox.frames.WidgetType;
+import org.obsidianbox.frames.util.StringDictionary;
+import org.obsidianbox.frames.util.WireFormat;
+
+/**
+ * <p>Minimal in-memory {@link org.obsidianbox.frames.IContainer} for the benchmarks.
+ *
+ * <p>updateLayout() always lays out the whole subtree: each container measures its children, arranges them for its
+ * {@link org.obsidianbox.frames.ContainerType}, then lays out its child containers in turn. Flex space is split in a single
+ * proportional pass, and grid children spanning several tracks spread their excess size across the AUTO tracks they span.
+ * With parallel layout enabled, child containers holding at least getParallelThreshold() widgets are measured, then laid out,
+ * as tasks of the pool set by setLayoutPool(); each task only writes its own subtree, so the result is the same as the serial
+ * layout. Each container decides for its own children, with its own isParallelLayout() and threshold.
+ */
+public class ReferenceContainer extends ReferenceWidget implements IContainer {
+    /**
+     * The properties of every reference container. Children are only part of the NBT format.
+     */
+    static final long PROPERTIES = ReferenceWidget.PROPERTIES | WidgetProperty.toMask(WidgetProperty.ALIGN, WidgetProperty.AUTO,
+            WidgetProperty.LAYOUT, WidgetProperty.REVERSE, WidgetProperty.CHILDREN, WidgetProperty.GRID_TRACKS);
+    private static final int MAX_TRACKS = 1024;
+    private static ForkJoinPool layoutPool = new ForkJoinPool();
+
+    private final List<IWidget> children = new ArrayList<>();
+    private ContainerType layout = ContainerType.VERTICAL;
+    private Anchor align = Anchor.TOP_LEFT;
+    private boolean reverse;
+    private boolean auto = true;
+    private boolean flex;
+    private IGridTrack[] columns;
+    private IGridTrack[] rows;
+    private boolean layoutValid;
+    private boolean parallel;
+    private int parallelThreshold = 1024;
+    private int batchDepth;
+    private int descendants;
+
+    public ReferenceContainer() {
+    }
+
+    public ReferenceContainer(ContainerType layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public WidgetType getType() {
+        return WidgetType.CONTAINER;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        children.clear();
+        descendants = 0;
+        layout = ContainerType.VERTICAL;
+        align = Anchor.TOP_LEFT;
+        reverse = false;
+        auto = true;
+        flex = false;
+        columns = rows = null;
+        layoutValid = false;
+    }
+
+    @Override
+    protected long getPropertyMask() {
+        return PROPERTIES;
+    }
+
+    @Override
+    protected void writeProperty(WidgetProperty property, ReferenceCompound tags) throws IOException {
+        switch (property) {
+            case ALIGN:
+                tags.setInt("Align", align.getId());
+                break;
+            case AUTO:
+                tags.setBoolean("Auto", auto);
+                break;
+            case LAYOUT:
+                tags.setInt("Layout", layout.getId());
+                break;
+            case REVERSE:
+                tags.setBoolean("Reverse", reverse);
+                break;
+            case CHILDREN:
+                final List<ReferenceCompound> list = new ArrayList<>(children.size());
+                for (IWidget child : children) {
+                    final ReferenceCompound tag = new ReferenceCompound();
+                    child.toNBT(tag);
+                    list.add(tag);
+                }
+                tags.setList("Children", list);
+                break;
+            case GRID_TRACKS:
+                tags.setList("Columns", toNBT(columns));
+                tags.setList("Rows", toNBT(rows));
+                break;
+            case FLEX:
+                super.writeProperty(property, tags);
+                tags.setBoolean("Flex", flex);
+                break;
+            default:
+                super.writeProperty(property, tags);
+        }
+    }
+
+    @Override
+    protected void readProperty(WidgetProperty property, ReferenceCompound tags) throws IOException {
+        switch (property) {
+            case ALIGN:
+                setAlign(toAnchor(tags.getInt("Align")));
+                break;
+            case AUTO:
+                setAuto(tags.getBoolean("Auto"));
+                break;
+            case LAYOUT:
+                setLayout(toLayout(tags.getInt("Layout")));
+                break;
+            case REVERSE:
+                setReverse(tags.getBoolean("Reverse"));
+                break;
+            case CHILDREN:
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    removeChild(children.get(i));
+                }
+                for (ReferenceCompound tag : tags.getList("Children")) {
+                    final ReferenceWidget child = create(WidgetType.getWidgetTypeFromId(tag.getInt("Type")));
+                    child.fromNBT(tag);
+                    addChild(child);
+                }
+                break;
+            case GRID_TRACKS:
+                setColumns(fromNBT(tags.getList("Columns")));
+                setRows(fromNBT(tags.getList("Rows")));
+                break;
+            case FLEX:
+                super.readProperty(property, tags);
+                setFlex(tags.getBoolean("Flex"));
+                break;
+            default:
+                super.readProperty(property, tags);
+        }
+    }
+
+    private static List<ReferenceCompound> toNBT(IGridTrack[] tracks) {
+        final List<ReferenceCompound> list = new ArrayList<>(tracks == null ? 0 : tracks.length);
+        if (tracks != null) {
+            for (IGridTrack track : tracks) {
+                final ReferenceCompound tag = new ReferenceCompound();
+                tag.setInt("Sizing", track.getSizing().getId());
+                tag.setInt("Size", track.getSize());
+                tag.setFloat("Weight", track.getWeight());
+                list.add(tag);
+            }
+        }
+        return list;
+    }
+
+    private static IGridTrack[] fromNBT(List<ReferenceCompound> list) throws IOException {
+        final IGridTrack[] tracks = new IGridTrack[list.size()];
+        for (int i = 0; i < tracks.length; i++) {
+            final ReferenceCompound tag = list.get(i);
+            tracks[i] = new ReferenceGridTrack(toSizing(tag.getInt("Sizing")), tag.getInt("Size"), tag.getFloat("Weight"));
+        }
+        return tracks;
+    }
+
+    @Override
+    protected void writeProperty(WidgetProperty property, DataOutput out, StringDictionary strings) throws IOException {
+        switch (property) {
+            case ALIGN:
+                WireFormat.writeVarInt(out, align.getId());
+                break;
+            case AUTO:
+                out.writeBoolean(auto);
+                break;
+            case LAYOUT:
+                WireFormat.writeVarInt(out, layout.getId());
+                break;
+            case REVERSE:
+                out.writeBoolean(reverse);
+                break;
+            case GRID_TRACKS:
+                writeTracks(out, columns);
+                writeTracks(out, rows);
+                break;
+            case FLEX:
+                super.writeProperty(property, out, strings);
+                out.writeBoolean(flex);
+                break;
+            default:
+                super.writeProperty(property, out, strings);
+        }
+    }
+
+    @Override
+    protected void readProperty(WidgetProperty property, DataInput in, StringDictionary strings) throws IOException {
+        switch (property) {
+            case ALIGN:
+                setAlign(toAnchor(WireFormat.readVarInt(in)));
+                break;
+            case AUTO:
+                setAuto(in.readBoolean());
+                break;
+            case LAYOUT:
+                setLayout(toLayout(WireFormat.readVarInt(in)));
+                break;
+            case REVERSE:
+                setReverse(in.readBoolean());
+                break;
+            case GRID_TRACKS:
+                setColumns(readTracks(in));
+                setRows(readTracks(in));
+                break;
+            case FLEX:
+                super.readProperty(property, in, strings);
+                setFlex(in.readBoolean());
+                break;
+            default:
+                super.readProperty(property, in, strings);
+        }
+    }
+
+    private static void writeTracks(DataOutput out, IGridTrack[] tracks) throws IOException {
+        WireFormat.writeVarInt(out, tracks == null ? 0 : tracks.length);
+        if (tracks != null) {
+            for (IGridTrack track : tracks) {
+                WireFormat.writeVarInt(out, track.getSizing().getId());
+                WireFormat.writeSignedVarInt(out, track.getSize());
+                out.writeFloat(track.getWeight());
+            }
+        }
+    }
+
+    private static IGridTrack[] readTracks(DataInput in) throws IOException {
+        final int count = WireFormat.readVarInt(in);
+        if (count < 0 || count > MAX_TRACKS) {
+            throw new IOException("Invalid track count " + count);
+        }
+        final IGridTrack[] tracks = new IGridTrack[count];
+        for (int i = 0; i < count; i++) {
+            tracks[i] = new ReferenceGridTrack(toSizing(WireFormat.readVarInt(in)), WireFormat.readSignedVarInt(in), in.readFloat());
+        }
+        return tracks;
+    }
+
+    @Override
+    protected int getFixedSize(WidgetProperty property) {
+        switch (property) {
+            case ALIGN:
+            case AUTO:
+            case LAYOUT:
+            case REVERSE:
+                return 1;
+            case FLEX:
+                return super.getFixedSize(property) + 1;
+            case GRID_TRACKS:
+                return -1;
+            default:
+                return super.getFixedSize(property);
+        }
+    }
+
+    @Override
+    protected void putProperty(WidgetProperty property, ByteBuffer buffer, int index) {
+        switch (property) {
+            case ALIGN:
+                buffer.put(index, (byte) align.getId());
+                break;
+            case AUTO:
+                buffer.put(index, (byte) (auto ? 1 : 0));
+                break;
+            case LAYOUT:
+                buffer.put(index, (byte) layout.getId());
+                break;
+            case REVERSE:
+                buffer.put(index, (byte) (reverse ? 1 : 0));
+                break;
+            case FLEX:
+                super.putProperty(property, buffer, index);
+                buffer.put(index + super.getFixedSize(property), (byte) (flex ? 1 : 0));
+                break;
+            default:
+                super.putProperty(property, buffer, index);
+        }
+    }
+
+    @Override
+    protected void getProperty(WidgetProperty property, ByteBuffer buffer, int index) {
+        switch (property) {
+            case ALIGN:
+                final Anchor anchor = Anchor.getAnchorFromId(buffer.get(index));
+                if (anchor == null) {
+                    throw new IllegalArgumentException("Unknown anchor " + buffer.get(index));
+                }
+                setAlign(anchor);
+                break;
+            case AUTO:
+                setAuto(buffer.get(index) != 0);
+                break;
+            case LAYOUT:
+                final ContainerType type = ContainerType.getContainerTypeFromId(buffer.get(index));
+                if (type == null) {
+                    throw new IllegalArgumentException("Unknown container type " + buffer.get(index));
+                }
+                setLayout(type);
+                break;
+            case REVERSE:
+                setReverse(buffer.get(index) != 0);
+                break;
+            case FLEX:
+                super.getProperty(property, buffer, index);
+                setFlex(buffer.get(index + super.getFixedSize(property)) != 0);
+                break;
+            default:
+                super.getProperty(property, buffer, index);
+        }
+    }
+
+    /**
+     * Grid tracks take a 4 byte count and 9 bytes per track, for columns then rows.
+     */
+    @Override
+    protected int getVariableSize(WidgetProperty property) {
+        if (property != WidgetProperty.GRID_TRACKS) {
+            return super.getVariableSize(property);
+        }
+        return 8 + 9 * ((columns == null ? 0 : columns.length) + (rows == null ? 0 : rows.length));
+    }
+
+    @Override
+    protected void putProperty(WidgetProperty property, ByteBuffer buffer) {
+        if (property != WidgetProperty.GRID_TRACKS) {
+            super.putProperty(property, buffer);
+            return;
+        }
+        putTracks(buffer, columns);
+        putTracks(buffer, rows);
+    }
+
+    @Override
+    protected void getProperty(WidgetProperty property, ByteBuffer buffer) {
+        if (property != WidgetProperty.GRID_TRACKS) {
+            super.getProperty(property, buffer);
+            return;
+        }
+        setColumns(getTracks(buffer));
+        setRows(getTracks(buffer));
+    }
+
+    private static void putTracks(ByteBuffer buffer, IGridTrack[] tracks) {
+        buffer.putInt(tracks == null ? 0 : tracks.length);
+        if (tracks != null) {
+            for (IGridTrack track : tracks) {
+                buffer.put((byte) track.getSizing().getId());
+                buffer.putInt(track.getSize());
+                buffer.putFloat(track.getWeight());
+            }
+        }
+    }
+
+    private static IGridTrack[] getTracks(ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 9) {
+            throw new IllegalArgumentException("Invalid track count " + count);
+        }
+        final IGridTrack[] tracks = new IGridTrack[count];
+        for (int i = 0; i < count; i++) {
+            final TrackSizing sizing = TrackSizing.getTrackSizingFromId(buffer.get());
+            if (sizing == null) {
+                throw new IllegalArgumentException("Unknown track sizing");
+            }
+            tracks[i] = new ReferenceGridTrack(sizing, buffer.getInt(), buffer.getFloat());
+        }
+        return tracks;
+    }
+
+    private static ContainerType toLayout(int id) throws IOException {
+        final ContainerType type = ContainerType.getContainerTypeFromId(id);
+        if (type == null) {
+            throw new IOException("Unknown container type " + id);
+        }
+        return type;
+    }
+
+    /**
+     * Gets the pool parallel layouts run on. The reference widgets have no {@link org.obsidianbox.frames.GuiFactory}, so this
+     * stands in for GuiFactory.getLayoutPool().
+     */
+    static ForkJoinPool getLayoutPool() {
+        return layoutPool;
+    }
+
+    /**
+     * Sets the pool parallel layouts run on, standing in for GuiFactory.setLayoutPool().
+     */
+    static void setLayoutPool(ForkJoinPool pool) {
+        layoutPool = pool;
+    }
+
+    private static TrackSizing toSizing(int id) throws IOException {
+        final TrackSizing sizing = TrackSizing.getTrackSizingFromId(id);
+        if (sizing == null) {
+            throw new IOException("Unknown track sizing " + id);
+        }
+        return sizing;
+    }
+
+    @Override
+    public IContainer addChild(IWidget child) {
+        return insertChild(children.size(), child);
+    }
+
+    @Override
+    public IContainer insertChild(int index, IWidget child) {
+        children.add(index, child);
+        child.setContainer(this);
+        adjustDescendants(1 + descendantsOf(child));
+        if (screen != null) {
+            screen.register(getPlugin(), child);
+        }
+        markDirty(WidgetProperty.CHILDREN);
+        invalidateContent();
+        return this;
+    }
+
+    @Override
+    public IContainer addChildren(IWidget... children) {
+        beginBatch();
+        try {
+            for (IWidget child : children) {
+                addChild(child);
+            }
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    @Override
+    public IContainer removeChild(IWidget child) {
+        if (children.remove(child)) {
+            child.setContainer(null);
+            adjustDescendants(-1 - descendantsOf(child));
+            if (screen != null) {
+                screen.unregister(child);
+            }
+            markDirty(WidgetProperty.CHILDREN);
+            invalidateContent();
+        }
+        return this;
+    }
+
+    private static int descendantsOf(IWidget widget) {
+        return widget instanceof ReferenceContainer ? ((ReferenceContainer) widget).descendants : 0;
+    }
+
+    private void adjustDescendants(int delta) {
+        for (ReferenceContainer c = this; c != null; c = (ReferenceContainer) c.getContainer()) {
+            c.descendants += delta;
+        }
+    }
+
+    /**
+     * Gets the number of widgets below this container, at any depth.
+     */
+    int getDescendantCount() {
+        return descendants;
+    }
+
+    @Override
+    public IWidget[] getChildren() {
+        return children.toArray(new IWidget[children.size()]);
+    }
+
+    @Override
+    public int getChildCount() {
+        return children.size();
+    }
+
+    @Override
+    public IWidget getChild(int index) {
+        return children.get(index);
+    }
+
+    @Override
+    public boolean visitChildren(IWidgetVisitor visitor, boolean recursive) {
+        return visitChildren(visitor, null, recursive);
+    }
+
+    @Override
+    public boolean visitChildren(IWidgetVisitor visitor, IWidgetFilter filter, boolean recursive) {
+        for (int i = 0; i < children.size(); i++) {
+            final IWidget child = children.get(i);
+            VisitResult result = VisitResult.CONTINUE;
+            if (filter == null || filter.accept(child)) {
+                result = visitor.visit(child);
+            }
+            if (result == VisitResult.TERMINATE) {
+                return false;
+            }
+            if (recursive && result == VisitResult.CONTINUE && child instanceof IContainer && !((IContainer) child).visitChildren(visitor, filter, true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public IContainer setLayout(ContainerType type) {
+        layout = type;
+        markDirty(WidgetProperty.LAYOUT);
+        return invalidateLayout();
+    }
+
+    @Override
+    public ContainerType getLayout() {
+        return layout;
+    }
+
+    @Override
+    public IContainer setFlex(boolean flex) {
+        this.flex = flex;
+        markDirty(WidgetProperty.FLEX);
+        return invalidateLayout();
+    }
+
+    @Override
+    public boolean isFlex() {
+        return flex;
+    }
+
+    @Override
+    public IContainer setColumns(IGridTrack... columns) {
+        this.columns = columns.length == 0 ? null : columns.clone();
+        markDirty(WidgetProperty.GRID_TRACKS);
+        return invalidateLayout();
+    }
+
+    @Override
+    public IGridTrack[] getColumns() {
+        return columns == null ? new IGridTrack[0] : columns.clone();
+    }
+
+    @Override
+    public IContainer setRows(IGridTrack... rows) {
+        this.rows = rows.length == 0 ? null : rows.clone();
+        markDirty(WidgetProperty.GRID_TRACKS);
+        return invalidateLayout();
+    }
+
+    @Override
+    public IGridTrack[] getRows() {
+        return rows == null ? new IGridTrack[0] : rows.clone();
+    }
+
+    @Override
+    public IContainer updateLayout() {
+        final ReferenceScreen owner = screen;
+        if (owner != null) {
+            owner.beginLayout();
+        }
+        final LayoutCounts counts = new LayoutCounts();
+        try {
+            if (parallel) {
+                final LayoutTask task = new LayoutTask(this);
+                layoutPool.invoke(task);
+                counts.add(task.counts);
+            } else {
+                layoutTree(counts);
+            }
+        } finally {
+            if (owner != null) {
+                // The container itself is visited too
+                owner.endLayout(this, counts.visited + 1, counts.measured, counts.arranged);
+            }
+        }
+        return this;
+    }
+
+    private void layoutTree(LayoutCounts counts) {
+        layoutChildren(counts);
+        for (int i = 0; i < children.size(); i++) {
+            final IWidget child = children.get(i);
+            if (child instanceof ReferenceContainer) {
+                ((ReferenceContainer) child).layoutTree(counts);
+            }
+        }
+    }
+
+    @Override
+    void invalidateContentTransforms() {
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).invalidateTransform();
+        }
+    }
+
+    @Override
+    public IContainer deferLayout() {
+        return invalidateLayout();
+    }
+
+    @Override
+    public IContainer invalidateLayout() {
+        layoutValid = false;
+        invalidateMeasure();
+        return this;
+    }
+
+    /**
+     * Invalidates the layout of this container and of every container holding it, as adding or removing a child changes
+     * the size of their content.
+     */
+    private void invalidateContent() {
+        for (IContainer c = this; c != null; c = c.getContainer()) {
+            c.invalidateLayout();
+        }
+    }
+
+    @Override
+    public IContainer invalidateArrange() {
+        layoutValid = false;
+        return this;
+    }
+
+    @Override
+    public boolean isLayoutValid() {
+        return layoutValid;
+    }
+
+    @Override
+    public IContainer setParallelLayout(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    @Override
+    public boolean isParallelLayout() {
+        return parallel;
+    }
+
+    @Override
+    public IContainer setParallelThreshold(int threshold) {
+        parallelThreshold = threshold;
+        return this;
+    }
+
+    @Override
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public IContainer beginBatch() {
+        batchDepth++;
+        return this;
+    }
+
+    @Override
+    public IContainer commitBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch was started");
+        }
+        if (--batchDepth == 0 && !layoutValid) {
+            updateLayout();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isBatching() {
+        return batchDepth > 0;
+    }
+
+    @Override
+    public IContainer batch(Runnable changes) {
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    @Override
+    public IContainer setAlign(Anchor anchor) {
+        align = anchor;
+        markDirty(WidgetProperty.ALIGN);
+        return invalidateArrange();
+    }
+
+    @Override
+    public Anchor getAlign() {
+        return align;
+    }
+
+    @Override
+    public IContainer setReverse(boolean reverse) {
+        this.reverse = reverse;
+        markDirty(WidgetProperty.REVERSE);
+        return invalidateArrange();
+    }
+
+    @Override
+    public boolean getReverse() {
+        return reverse;
+    }
+
+    @Override
+    public IContainer setAuto(boolean auto) {
+        this.auto = auto;
+        markDirty(WidgetProperty.AUTO);
+        return invalidateLayout();
+    }
+
+    @Override
+    public boolean isAuto() {
+        return auto;
+    }
+
+    /**
+     * Containers with children want the size of their content: the children along the layout axis for HORIZONTAL and
+     * VERTICAL, the largest child for OVERLAY and a grid of equal cells for GRID, margins included.
+     */
+    @Override
+    protected void measurePreferred(int availableWidth, int availableHeight, Dimension size) {
+        if (children.isEmpty()) {
+            super.measurePreferred(availableWidth, availableHeight, size);
+            return;
+        }
+        int sumWidth = 0;
+        int sumHeight = 0;
+        int maxWidth = 0;
+        int maxHeight = 0;
+        for (int i = 0; i < children.size(); i++) {
+            final IWidget child = children.get(i);
+            final Dimension measured = child.measure(availableWidth, availableHeight);
+            final int width = measured.width + child.getMarginLeft() + child.getMarginRight();
+            final int height = measured.height + child.getMarginTop() + child.getMarginBottom();
+            sumWidth += width;
+            sumHeight += height;
+            maxWidth = Math.max(maxWidth, width);
+            maxHeight = Math.max(maxHeight, height);
+        }
+        switch (layout) {
+            case HORIZONTAL:
+                size.setSize(sumWidth, maxHeight);
+                break;
+            case VERTICAL:
+                size.setSize(maxWidth, sumHeight);
+                break;
+            case OVERLAY:
+                size.setSize(maxWidth, maxHeight);
+                break;
+            case GRID:
+                final int columnCount = columns != null ? columns.length : Math.max(1, (int) Math.ceil(Math.sqrt(children.size())));
+                final int rowCount = (children.size() + columnCount - 1) / columnCount;
+                size.setSize(columnCount * maxWidth, rowCount * maxHeight);
+                break;
+        }
+    }
+
+    /**
+     * Measures and arranges the direct children of this container, adding them to the counts.
+     */
+    private void layoutChildren(LayoutCounts counts) {
+        switch (layout) {
+            case HORIZONTAL:
+                layoutLine(true);
+                break;
+            case VERTICAL:
+                layoutLine(false);
+                break;
+            case OVERLAY:
+                layoutOverlay();
+                break;
+            case GRID:
+                layoutGrid();
+                break;
+        }
+        layoutValid = true;
+        counts.arranged++;
+        for (int i = 0; i < children.size(); i++) {
+            final ReferenceWidget child = (ReferenceWidget) children.get(i);
+            counts.visited++;
+            if (child.remeasured) {
+                child.remeasured = false;
+                counts.measured++;
+            }
+        }
+    }
+
+    private void layoutLine(boolean horizontal) {
+        final int size = (int) (horizontal ? getWidth() : getHeight());
+        final int cross = (int) (horizontal ? getHeight() : getWidth());
+        final int count = children.size();
+        int used = 0;
+        float grow = 0;
+        float shrink = 0;
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            if (child.isFixed()) {
+                continue;
+            }
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            used += horizontal ? measured.width + child.getMarginLeft() + child.getMarginRight()
+                    : measured.height + child.getMarginTop() + child.getMarginBottom();
+            grow += child.getGrow();
+            shrink += child.getShrink();
+        }
+        final int free = flex ? size - used : 0;
+        final float weights = free >= 0 ? grow : shrink;
+        int cursor = horizontal ? getX() : getY();
+        for (int n = 0; n < count; n++) {
+            final IWidget child = children.get(reverse ? count - 1 - n : n);
+            if (child.isFixed()) {
+                continue;
+            }
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            final float weight = free >= 0 ? child.getGrow() : child.getShrink();
+            int main = horizontal ? measured.width : measured.height;
+            if (free != 0 && weights > 0) {
+                main += (int) (free * weight / weights);
+                main = horizontal ? clamp(main, child.getMinWidth(), child.getMaxWidth()) : clamp(main, child.getMinHeight(), child.getMaxHeight());
+            }
+            if (horizontal) {
+                final int height = auto ? cross - child.getMarginTop() - child.getMarginBottom() : measured.height;
+                child.arrange(cursor + child.getMarginLeft(), getY() + child.getMarginTop(), main, height);
+                cursor += child.getMarginLeft() + main + child.getMarginRight();
+            } else {
+                final int width = auto ? cross - child.getMarginLeft() - child.getMarginRight() : measured.width;
+                child.arrange(getX() + child.getMarginLeft(), cursor + child.getMarginTop(), width, main);
+                cursor += child.getMarginTop() + main + child.getMarginBottom();
+            }
+        }
+    }
+
+    private void layoutOverlay() {
+        for (int i = 0; i < children.size(); i++) {
+            final IWidget child = children.get(i);
+            if (child.isFixed()) {
+                continue;
+            }
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            final int width = auto ? (int) getWidth() - child.getMarginLeft() - child.getMarginRight() : measured.width;
+            final int height = auto ? (int) getHeight() - child.getMarginTop() - child.getMarginBottom() : measured.height;
+            child.arrange(getX() + child.getMarginLeft(), getY() + child.getMarginTop(), width, height);
+        }
+    }
+
+    private void layoutGrid() {
+        final int count = children.size();
+        int columnCount = columns != null ? columns.length : Math.max(1, (int) Math.ceil(Math.sqrt(count)));
+        int rowCount = rows != null ? rows.length : 0;
+        int placed = 0;
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            if (child.getGridColumn() >= 0 && child.getGridRow() >= 0) {
+                columnCount = Math.max(columnCount, child.getGridColumn() + child.getGridColumnSpan());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            final int row = child.getGridRow() >= 0 && child.getGridColumn() >= 0 ? child.getGridRow() : placed++ / columnCount;
+            final int span = child.getGridRow() >= 0 && child.getGridColumn() >= 0 ? child.getGridRowSpan() : 1;
+            rowCount = Math.max(rowCount, row + span);
+        }
+        final int[] columnSizes = new int[columnCount];
+        final int[] rowSizes = new int[rowCount];
+        placed = 0;
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            final boolean explicit = child.getGridRow() >= 0 && child.getGridColumn() >= 0;
+            final int row = explicit ? child.getGridRow() : placed / columnCount;
+            final int column = explicit ? child.getGridColumn() : placed++ % columnCount;
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            if (!explicit || child.getGridColumnSpan() == 1) {
+                columnSizes[column] = Math.max(columnSizes[column], measured.width + child.getMarginLeft() + child.getMarginRight());
+            }
+            if (!explicit || child.getGridRowSpan() == 1) {
+                rowSizes[row] = Math.max(rowSizes[row], measured.height + child.getMarginTop() + child.getMarginBottom());
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            if (child.getGridRow() < 0 || child.getGridColumn() < 0) {
+                continue;
+            }
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            if (child.getGridColumnSpan() > 1) {
+                spread(columns, columnSizes, child.getGridColumn(), child.getGridColumnSpan(), measured.width + child.getMarginLeft() + child.getMarginRight());
+            }
+            if (child.getGridRowSpan() > 1) {
+                spread(rows, rowSizes, child.getGridRow(), child.getGridRowSpan(), measured.height + child.getMarginTop() + child.getMarginBottom());
+            }
+        }
+        resolveTracks(columns, columnSizes, (int) getWidth());
+        resolveTracks(rows, rowSizes, (int) getHeight());
+        toOffsets(columnSizes, getX());
+        toOffsets(rowSizes, getY());
+        placed = 0;
+        for (int i = 0; i < count; i++) {
+            final IWidget child = children.get(i);
+            final boolean explicit = child.getGridRow() >= 0 && child.getGridColumn() >= 0;
+            final int row = explicit ? child.getGridRow() : placed / columnCount;
+            final int column = explicit ? child.getGridColumn() : placed++ % columnCount;
+            if (child.isFixed()) {
+                continue;
+            }
+            final int lastColumn = column + (explicit ? child.getGridColumnSpan() : 1);
+            final int lastRow = row + (explicit ? child.getGridRowSpan() : 1);
+            final int left = offset(columnSizes, column, getX());
+            final int top = offset(rowSizes, row, getY());
+            final int cellWidth = offset(columnSizes, lastColumn, getX()) - left - child.getMarginLeft() - child.getMarginRight();
+            final int cellHeight = offset(rowSizes, lastRow, getY()) - top - child.getMarginTop() - child.getMarginBottom();
+            final Dimension measured = child.measure((int) getWidth(), (int) getHeight());
+            child.arrange(left + child.getMarginLeft(), top + child.getMarginTop(), auto ? cellWidth : Math.min(measured.width, cellWidth),
+                    auto ? cellHeight : Math.min(measured.height, cellHeight));
+        }
+    }
+
+    /**
+     * Spreads the part of the given size exceeding the spanned tracks evenly across the spanned AUTO tracks, the remaining
+     * pixels one each from the first. FIXED tracks count at their size and WEIGHTED tracks as 0.
+     */
+    private static void spread(IGridTrack[] tracks, int[] sizes, int first, int span, int size) {
+        final int end = Math.min(first + span, sizes.length);
+        int total = 0;
+        int autos = 0;
+        for (int i = first; i < end; i++) {
+            final IGridTrack track = tracks != null && i < tracks.length ? tracks[i] : null;
+            if (track != null && track.getSizing() == TrackSizing.FIXED) {
+                total += track.getSize();
+            } else if (tracks != null && (track == null || track.getSizing() == TrackSizing.AUTO)) {
+                total += sizes[i];
+                autos++;
+            }
+        }
+        if (autos == 0 || size <= total) {
+            return;
+        }
+        final int share = (size - total) / autos;
+        int remainder = (size - total) % autos;
+        for (int i = first; i < end; i++) {
+            final IGridTrack track = tracks != null && i < tracks.length ? tracks[i] : null;
+            if (tracks != null && (track == null || track.getSizing() == TrackSizing.AUTO)) {
+                sizes[i] += share;
+                if (remainder > 0) {
+                    sizes[i]++;
+                    remainder--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the AUTO sizes in the given array by the sizes of the tracks, splitting the space left between WEIGHTED tracks.
+     * Without defined tracks, every track is WEIGHTED with weight 1; tracks beyond the defined ones are AUTO.
+     */
+    private static void resolveTracks(IGridTrack[] tracks, int[] sizes, int available) {
+        int left = available;
+        float weights = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            final IGridTrack track = tracks != null && i < tracks.length ? tracks[i] : null;
+            if (track == null && tracks == null) {
+                weights += 1;
+            } else if (track == null || track.getSizing() == TrackSizing.AUTO) {
+                left -= sizes[i];
+            } else if (track.getSizing() == TrackSizing.FIXED) {
+                sizes[i] = track.getSize();
+                left -= sizes[i];
+            } else {
+                weights += track.getWeight();
+            }
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            final IGridTrack track = tracks != null && i < tracks.length ? tracks[i] : null;
+            if (track == null && tracks == null) {
+                sizes[i] = weights > 0 ? Math.max(0, (int) (left / weights)) : 0;
+            } else if (track != null && track.getSizing() == TrackSizing.WEIGHTED) {
+                sizes[i] = weights > 0 ? Math.max(0, (int) (left * track.getWeight() / weights)) : 0;
+            }
+        }
+    }
+
+    /**
+     * Turns track sizes into the start offsets of the tracks following each one, in place.
+     */
+    private static void toOffsets(int[] sizes, int origin) {
+        int offset = origin;
+        for (int i = 0; i < sizes.length; i++) {
+            offset += sizes[i];
+            sizes[i] = offset;
+        }
+    }
+
+    private static int offset(int[] ends, int track, int origin) {
+        return track == 0 ? origin : ends[Math.min(track, ends.length) - 1];
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * The work done by a layout pass, or by one task of a parallel pass.
+     */
+    private static final class LayoutCounts {
+        private int visited;
+        private int measured;
+        private int arranged;
+
+        private void add(LayoutCounts other) {
+            visited += other.visited;
+            measured += other.measured;
+            arranged += other.arranged;
+        }
+    }
+
+    /**
+     * Is true if the given child is laid out as a task of its own: this container lays out in parallel, and the child is a
+     * container holding at least getParallelThreshold() widgets.
+     */
+    private boolean isForked(IWidget child) {
+        return parallel && child instanceof ReferenceContainer && ((ReferenceContainer) child).descendants >= parallelThreshold;
+    }
+
+    /**
+     * Measures one container for the given space, measuring its large child containers as parallel subtasks first so its own
+     * measure finds them cached. Containers measure their children with the space they are given.
+     */
+    private static final class MeasureTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ReferenceContainer container;
+        private final int availableWidth;
+        private final int availableHeight;
+
+        private MeasureTask(ReferenceContainer container, int availableWidth, int availableHeight) {
+            this.container = container;
+            this.availableWidth = availableWidth;
+            this.availableHeight = availableHeight;
+        }
+
+        @Override
+        protected void compute() {
+            forkMeasures(container, availableWidth, availableHeight);
+            container.measure(availableWidth, availableHeight);
+        }
+
+        /**
+         * Measures the forked children of the container in parallel, for the given space.
+         */
+        private static void forkMeasures(ReferenceContainer container, int availableWidth, int availableHeight) {
+            final List<IWidget> children = container.children;
+            List<MeasureTask> forked = Collections.emptyList();
+            for (int i = 0; i < children.size(); i++) {
+                final IWidget child = children.get(i);
+                // A valid measure is returned as is, without measuring the children again
+                if (container.isForked(child) && !child.isFixed()
+                        && !((ReferenceContainer) child).isMeasuredFor(availableWidth, availableHeight)) {
+                    if (forked.isEmpty()) {
+                        forked = new ArrayList<>();
+                    }
+                    final MeasureTask task = new MeasureTask((ReferenceContainer) child, availableWidth, availableHeight);
+                    task.fork();
+                    forked.add(task);
+                }
+            }
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                forked.get(i).join();
+            }
+        }
+    }
+
+    /**
+     * Lays out one container: measures its large child containers in parallel, arranges its children, then forks the large
+     * child containers as parallel subtasks and lays out the others inline. Each task counts its own work, summed up by the
+     * task that forked it. A container without parallel layout lays out its subtree serially.
+     */
+    private static final class LayoutTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ReferenceContainer container;
+        private final LayoutCounts counts = new LayoutCounts();
+
+        private LayoutTask(ReferenceContainer container) {
+            this.container = container;
+        }
+
+        @Override
+        protected void compute() {
+            if (!container.parallel) {
+                container.layoutTree(counts);
+                return;
+            }
+            // Children are measured for the size of this container, which its own layout has set already
+            MeasureTask.forkMeasures(container, (int) container.getWidth(), (int) container.getHeight());
+            container.layoutChildren(counts);
+            final List<IWidget> children = container.children;
+            List<LayoutTask> forked = Collections.emptyList();
+            for (int i = 0; i < children.size(); i++) {
+                final IWidget child = children.get(i);
+                if (container.isForked(child)) {
+                    if (forked.isEmpty()) {
+                        forked = new ArrayList<>();
+                    }
+                    final LayoutTask task = new LayoutTask((ReferenceContainer) child);
+                    task.fork();
+                    forked.add(task);
+                }
+            }
+            for (int i = 0; i < children.size(); i++) {
+                final IWidget child = children.get(i);
+                if (child instanceof ReferenceContainer && !container.isForked(child)) {
+                    ((ReferenceContainer) child).layoutTree(counts);
+                }
+            }
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                forked.get(i).join();
+                counts.add(forked.get(i).counts);
+            }
+        }
+    }
+}
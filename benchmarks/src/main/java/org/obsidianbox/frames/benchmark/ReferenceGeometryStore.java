@@ -0,0 +1,178 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.util.Arrays;
+
+import org.obsidianbox.frames.IGeometryStore;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.PositionOrientation;
+
+/**
+ * <p>{@link org.obsidianbox.frames.IGeometryStore} of a {@link ReferenceScreen}, one primitive array per field.
+ *
+ * <p>{@link ReferenceWidget} reads and writes its geometry through the arrays while it occupies a slot, and copies it back into
+ * its own fields when it leaves the store.
+ */
+final class ReferenceGeometryStore implements IGeometryStore {
+    ReferenceWidget[] widgets = new ReferenceWidget[16];
+    int[] x = new int[16];
+    int[] y = new int[16];
+    int[] width = new int[16];
+    int[] height = new int[16];
+    int[] margins = new int[16 * 4];
+    int[] minWidth = new int[16];
+    int[] maxWidth = new int[16];
+    int[] minHeight = new int[16];
+    int[] maxHeight = new int[16];
+    boolean[] visible = new boolean[16];
+    private int size;
+
+    /**
+     * Takes the next free slot for the given widget. The caller fills in its geometry.
+     *
+     * @return the slot.
+     */
+    int add(ReferenceWidget widget) {
+        if (size == widgets.length) {
+            final int capacity = size * 2;
+            widgets = Arrays.copyOf(widgets, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            margins = Arrays.copyOf(margins, capacity * 4);
+            minWidth = Arrays.copyOf(minWidth, capacity);
+            maxWidth = Arrays.copyOf(maxWidth, capacity);
+            minHeight = Arrays.copyOf(minHeight, capacity);
+            maxHeight = Arrays.copyOf(maxHeight, capacity);
+            visible = Arrays.copyOf(visible, capacity);
+        }
+        widgets[size] = widget;
+        return size++;
+    }
+
+    /**
+     * Frees the given slot, moving the widget in the last slot into it.
+     */
+    void remove(int slot) {
+        final int last = --size;
+        if (slot != last) {
+            widgets[slot] = widgets[last];
+            x[slot] = x[last];
+            y[slot] = y[last];
+            width[slot] = width[last];
+            height[slot] = height[last];
+            System.arraycopy(margins, last * 4, margins, slot * 4, 4);
+            minWidth[slot] = minWidth[last];
+            maxWidth[slot] = maxWidth[last];
+            minHeight[slot] = minHeight[last];
+            maxHeight[slot] = maxHeight[last];
+            visible[slot] = visible[last];
+            widgets[slot].slot = slot;
+        }
+        widgets[last] = null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public IWidget getWidget(int slot) {
+        return widgets[slot];
+    }
+
+    @Override
+    public int getX(int slot) {
+        return x[slot];
+    }
+
+    @Override
+    public int getY(int slot) {
+        return y[slot];
+    }
+
+    @Override
+    public int getWidth(int slot) {
+        return width[slot];
+    }
+
+    @Override
+    public int getHeight(int slot) {
+        return height[slot];
+    }
+
+    @Override
+    public int getMargin(int slot, PositionOrientation pos) {
+        switch (pos) {
+            case TOP:
+                return margins[slot * 4];
+            case RIGHT:
+                return margins[slot * 4 + 1];
+            case BOTTOM:
+                return margins[slot * 4 + 2];
+            case LEFT:
+                return margins[slot * 4 + 3];
+            default:
+                throw new IllegalArgumentException("Not a side: " + pos);
+        }
+    }
+
+    @Override
+    public int getMinWidth(int slot) {
+        return minWidth[slot];
+    }
+
+    @Override
+    public int getMaxWidth(int slot) {
+        return maxWidth[slot];
+    }
+
+    @Override
+    public int getMinHeight(int slot) {
+        return minHeight[slot];
+    }
+
+    @Override
+    public int getMaxHeight(int slot) {
+        return maxHeight[slot];
+    }
+
+    @Override
+    public boolean isVisible(int slot) {
+        return visible[slot];
+    }
+
+    @Override
+    public void setBounds(int slot, int x, int y, int width, int height) {
+        widgets[slot].writeBounds(x, y, width, height, true);
+    }
+
+    @Override
+    public void setArrangedBounds(int slot, int x, int y, int width, int height) {
+        widgets[slot].writeBounds(x, y, width, height, false);
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import org.obsidianbox.frames.IGridTrack;
+import org.obsidianbox.frames.TrackSizing;
+
+/**
+ * Immutable {@link org.obsidianbox.frames.IGridTrack} of the reference containers, standing in for the tracks of the
+ * {@link org.obsidianbox.frames.GuiFactory}.
+ */
+final class ReferenceGridTrack implements IGridTrack {
+    private final TrackSizing sizing;
+    private final int size;
+    private final float weight;
+
+    ReferenceGridTrack(TrackSizing sizing, int size, float weight) {
+        this.sizing = sizing;
+        this.size = sizing == TrackSizing.FIXED ? size : 0;
+        this.weight = sizing == TrackSizing.WEIGHTED ? weight : 0;
+    }
+
+    static ReferenceGridTrack fixed(int size) {
+        return new ReferenceGridTrack(TrackSizing.FIXED, size, 0);
+    }
+
+    static ReferenceGridTrack auto() {
+        return new ReferenceGridTrack(TrackSizing.AUTO, 0, 0);
+    }
+
+    static ReferenceGridTrack weighted(float weight) {
+        return new ReferenceGridTrack(TrackSizing.WEIGHTED, 0, weight);
+    }
+
+    @Override
+    public TrackSizing getSizing() {
+        return sizing;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public float getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IGridTrack)) {
+            return false;
+        }
+        final IGridTrack other = (IGridTrack) obj;
+        return sizing == other.getSizing() && size == other.getSize() && Float.compare(weight, other.getWeight()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return (sizing.hashCode() * 31 + size) * 31 + Float.floatToIntBits(weight);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.obsidianbox.frames.Anchor;
+import org.obsidianbox.frames.RenderPriority;
+import org.obsidianbox.frames.SyncField;
+import org.obsidianbox.frames.Synced;
+
+/**
+ * In-memory label state, serialized by the generated ReferenceLabelCodec and by hand in {@link CodecBenchmark}.
+ */
+@Synced
+public class ReferenceLabel {
+    @SyncField(0) UUID id;
+    @SyncField(1) String plugin;
+    @SyncField(2) int x;
+    @SyncField(3) int y;
+    @SyncField(4) int width;
+    @SyncField(5) int height;
+    @SyncField(6) boolean visible;
+    @SyncField(7) RenderPriority priority;
+    @SyncField(8) Anchor anchor;
+    @SyncField(9) int marginTop;
+    @SyncField(10) int marginRight;
+    @SyncField(11) int marginBottom;
+    @SyncField(12) int marginLeft;
+    @SyncField(13) String text;
+    @SyncField(14) float scale;
+    @SyncField(15) boolean shadow;
+    @SyncField(16) List<String> items;
+
+    static ReferenceLabel create(int index) {
+        final ReferenceLabel label = new ReferenceLabel();
+        label.id = UUID.randomUUID();
+        label.plugin = "Benchmark";
+        label.x = index * 3;
+        label.y = -index;
+        label.width = 120;
+        label.height = 20;
+        label.visible = true;
+        label.priority = RenderPriority.Normal;
+        label.anchor = Anchor.TOP_LEFT;
+        label.marginTop = 2;
+        label.marginRight = 4;
+        label.marginBottom = 2;
+        label.marginLeft = 4;
+        label.text = "Label #" + index;
+        label.scale = 1.0f;
+        label.shadow = index % 2 == 0;
+        label.items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            label.items.add("Item " + i);
+        }
+        return label;
+    }
+}
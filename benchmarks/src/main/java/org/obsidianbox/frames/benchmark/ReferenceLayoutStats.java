@@ -0,0 +1,78 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import org.obsidianbox.frames.ILayoutStats;
+
+/**
+ * {@link org.obsidianbox.frames.ILayoutStats} of a {@link ReferenceScreen}, recorded once at the end of each layout pass from
+ * the counts the pass gathered.
+ */
+final class ReferenceLayoutStats implements ILayoutStats {
+    private long passes;
+    private int lastVisited;
+    private int lastMeasured;
+    private int lastArranged;
+    private long totalVisited;
+
+    void record(int visited, int measured, int arranged) {
+        passes++;
+        lastVisited = visited;
+        lastMeasured = measured;
+        lastArranged = arranged;
+        totalVisited += visited;
+    }
+
+    @Override
+    public long getPassCount() {
+        return passes;
+    }
+
+    @Override
+    public int getLastVisitedCount() {
+        return lastVisited;
+    }
+
+    @Override
+    public int getLastMeasuredCount() {
+        return lastMeasured;
+    }
+
+    @Override
+    public int getLastArrangedCount() {
+        return lastArranged;
+    }
+
+    @Override
+    public long getTotalVisitedCount() {
+        return totalVisited;
+    }
+
+    @Override
+    public void reset() {
+        passes = 0;
+        lastVisited = lastMeasured = lastArranged = 0;
+        totalVisited = 0;
+    }
+}
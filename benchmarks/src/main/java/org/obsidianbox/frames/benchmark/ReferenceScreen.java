@@ -0,0 +1,718 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.obsidianbox.frames.IContainer;
+import org.obsidianbox.frames.IGeometryStore;
+import org.obsidianbox.frames.ILayoutStats;
+import org.obsidianbox.frames.IScreen;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.IWidgetFilter;
+import org.obsidianbox.frames.IWidgetVisitor;
+import org.obsidianbox.frames.RenderPriority;
+import org.obsidianbox.frames.VisitResult;
+import org.obsidianbox.frames.WidgetType;
+
+/**
+ * <p>Minimal in-memory {@link org.obsidianbox.frames.IScreen} for the benchmarks, holding {@link ReferenceWidget}s,
+ * {@link ReferenceContainer}s and nested reference screens.
+ *
+ * <p>The screen keeps an id index, one draw list per priority and a {@link ReferenceGeometryStore} covering its widgets and all
+ * their children. The widgets of nested screens are held by those screens, and their ids are also kept in a second index of
+ * every screen above them for recursive lookups.
+ *
+ * <p>The spatial index is a grid of 64 pixel cells over the screen, with cells outside the screen kept in a map. Each widget is
+ * listed in every cell its bounds cover, and widgets covering more than {@value #MAX_WIDGET_CELLS} cells are tested by every
+ * query instead. Moves are applied to the index immediately, when the outermost batch is committed, or once at the end of a
+ * layout pass for the widgets the pass moved. Visibility is checked when querying, so it does not touch the index.
+ */
+public class ReferenceScreen extends ReferenceWidget implements IScreen {
+    private static final int CELL_SHIFT = 6;
+    private static final int MAX_WIDGET_CELLS = 1024;
+    // Regions covering more cells are answered by walking the draw lists
+    private static final int MAX_QUERY_CELLS = 256;
+    private static final Comparator<ReferenceWidget> DRAW_ORDER = new Comparator<ReferenceWidget>() {
+        @Override
+        public int compare(ReferenceWidget a, ReferenceWidget b) {
+            final int priority = Integer.compare(a.getPriority().ordinal(), b.getPriority().ordinal());
+            return priority != 0 ? priority : Long.compare(a.drawOrder, b.drawOrder);
+        }
+    };
+    private final List<IWidget> widgets = new ArrayList<>();
+    private final HashMap<UUID, ReferenceWidget> index = new HashMap<>();
+    private final HashMap<UUID, IWidget> nested = new HashMap<>();
+    private final EnumMap<RenderPriority, List<ReferenceWidget>> drawLists = new EnumMap<>(RenderPriority.class);
+    private final ReferenceGeometryStore store = new ReferenceGeometryStore();
+    private final ReferenceLayoutStats stats = new ReferenceLayoutStats();
+    private Cell[] cells;
+    private int columns;
+    private int rows;
+    private final HashMap<Long, Cell> outside = new HashMap<>();
+    private final List<ReferenceWidget> oversized = new ArrayList<>();
+    private final List<ReferenceWidget> pending = new ArrayList<>();
+    private long nextDrawOrder;
+    private int nextQueryStamp;
+    private int mouseX;
+    private int mouseY;
+    private int batchDepth;
+    private int layoutDepth;
+
+    public ReferenceScreen(int width, int height) {
+        super(width, height);
+        for (RenderPriority priority : RenderPriority.values()) {
+            drawLists.put(priority, new ArrayList<ReferenceWidget>());
+        }
+        rebuildIndex();
+    }
+
+    @Override
+    public WidgetType getType() {
+        return WidgetType.SCREEN;
+    }
+
+    /**
+     * Moves the mouse used by getHoveredWidget().
+     */
+    public void setMouse(int x, int y) {
+        mouseX = x;
+        mouseY = y;
+    }
+
+    /**
+     * Adds the widget and its children to the id index, the draw lists, the geometry store and the spatial index.
+     */
+    void register(String plugin, IWidget widget) {
+        final ReferenceWidget w = (ReferenceWidget) widget;
+        w.setPlugin(plugin);
+        w.screen = this;
+        w.attachGeometry(store);
+        index.put(w.getId(), w);
+        for (ReferenceScreen s = screen; s != null; s = s.screen) {
+            s.nested.put(w.getId(), w);
+        }
+        w.drawOrder = nextDrawOrder++;
+        drawLists.get(w.getPriority()).add(w);
+        w.invalidateTransform();
+        onMoved(w);
+        if (w instanceof ReferenceContainer) {
+            final ReferenceContainer container = (ReferenceContainer) w;
+            for (int i = 0; i < container.getChildCount(); i++) {
+                register(plugin, container.getChild(i));
+            }
+        } else if (w instanceof ReferenceScreen) {
+            final ReferenceScreen child = (ReferenceScreen) w;
+            for (ReferenceScreen s = this; s != null; s = s.screen) {
+                s.nested.putAll(child.index);
+                s.nested.putAll(child.nested);
+            }
+        }
+    }
+
+    /**
+     * Removes the widget and its children from the id index, the draw lists, the geometry store and the spatial index.
+     */
+    void unregister(IWidget widget) {
+        final ReferenceWidget w = (ReferenceWidget) widget;
+        index.remove(w.getId());
+        for (ReferenceScreen s = screen; s != null; s = s.screen) {
+            s.nested.remove(w.getId());
+        }
+        drawLists.get(w.getPriority()).remove(w);
+        removeFromIndex(w);
+        w.indexStale = false;
+        w.detachGeometry();
+        w.screen = null;
+        w.invalidateTransform();
+        if (w instanceof ReferenceContainer) {
+            final ReferenceContainer container = (ReferenceContainer) w;
+            for (int i = 0; i < container.getChildCount(); i++) {
+                unregister(container.getChild(i));
+            }
+        } else if (w instanceof ReferenceScreen) {
+            final ReferenceScreen child = (ReferenceScreen) w;
+            for (ReferenceScreen s = this; s != null; s = s.screen) {
+                s.nested.keySet().removeAll(child.index.keySet());
+                s.nested.keySet().removeAll(child.nested.keySet());
+            }
+        }
+    }
+
+    void onPriorityChanged(ReferenceWidget widget, RenderPriority old) {
+        if (drawLists.get(old).remove(widget)) {
+            widget.drawOrder = nextDrawOrder++;
+            drawLists.get(widget.getPriority()).add(widget);
+        }
+    }
+
+    /**
+     * Updates the spatial index for a widget whose bounds changed, now or when the batch or layout pass moving it ends.
+     */
+    void onMoved(ReferenceWidget widget) {
+        if (layoutDepth > 0) {
+            // Layout tasks may run on several threads; each only flags the widgets of its own subtree
+            widget.indexStale = true;
+        } else if (batchDepth > 0) {
+            if (!widget.indexStale) {
+                widget.indexStale = true;
+                pending.add(widget);
+            }
+        } else {
+            updateIndex(widget);
+        }
+    }
+
+    /**
+     * Starts a layout pass of a container of this screen.
+     */
+    void beginLayout() {
+        layoutDepth++;
+    }
+
+    /**
+     * Ends a layout pass of the given container, recording its counts and moving the widgets it repositioned in the spatial index.
+     */
+    void endLayout(ReferenceContainer root, int visited, int measured, int arranged) {
+        layoutDepth--;
+        stats.record(visited, measured, arranged);
+        if (layoutDepth == 0) {
+            flushLayout(root);
+        }
+    }
+
+    private void flushLayout(ReferenceWidget widget) {
+        if (widget.indexStale) {
+            widget.indexStale = false;
+            onMoved(widget);
+        }
+        if (widget instanceof ReferenceContainer) {
+            final ReferenceContainer container = (ReferenceContainer) widget;
+            for (int i = 0; i < container.getChildCount(); i++) {
+                flushLayout((ReferenceWidget) container.getChild(i));
+            }
+        }
+    }
+
+    @Override
+    void resized() {
+        // Called by the constructor of the superclass before the index exists
+        if (cells != null) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    double getContentX() {
+        return super.getContentX() + getX();
+    }
+
+    @Override
+    double getContentY() {
+        return super.getContentY() + getY();
+    }
+
+    @Override
+    void invalidateContentTransforms() {
+        for (int i = 0; i < widgets.size(); i++) {
+            widgets.get(i).invalidateTransform();
+        }
+    }
+
+    /**
+     * Sizes the grid to the screen and indexes every widget again.
+     */
+    private void rebuildIndex() {
+        columns = Math.max(1, ((int) getWidth() + (1 << CELL_SHIFT) - 1) >> CELL_SHIFT);
+        rows = Math.max(1, ((int) getHeight() + (1 << CELL_SHIFT) - 1) >> CELL_SHIFT);
+        cells = new Cell[columns * rows];
+        outside.clear();
+        oversized.clear();
+        for (ReferenceWidget widget : index.values()) {
+            widget.indexed = false;
+            updateIndex(widget);
+        }
+    }
+
+    private Cell getCell(int column, int row, boolean create) {
+        if (column >= 0 && row >= 0 && column < columns && row < rows) {
+            final int i = row * columns + column;
+            if (cells[i] == null && create) {
+                cells[i] = new Cell();
+            }
+            return cells[i];
+        }
+        final Long key = (long) column << 32 | row & 0xFFFFFFFFL;
+        Cell cell = outside.get(key);
+        if (cell == null && create) {
+            cell = new Cell();
+            outside.put(key, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Lists the widget in the cells covered by its current bounds, unless it already is.
+     */
+    private void updateIndex(ReferenceWidget widget) {
+        final int x = widget.getX();
+        final int y = widget.getY();
+        final int width = (int) widget.getWidth();
+        final int height = (int) widget.getHeight();
+        if (width <= 0 || height <= 0) {
+            // Empty bounds contain no point
+            removeFromIndex(widget);
+            return;
+        }
+        final int left = x >> CELL_SHIFT;
+        final int top = y >> CELL_SHIFT;
+        final int right = (int) ((long) x + width - 1 >> CELL_SHIFT);
+        final int bottom = (int) ((long) y + height - 1 >> CELL_SHIFT);
+        if (widget.indexed && widget.cellLeft == left && widget.cellTop == top && widget.cellRight == right && widget.cellBottom == bottom) {
+            return;
+        }
+        removeFromIndex(widget);
+        widget.indexed = true;
+        widget.cellLeft = left;
+        widget.cellTop = top;
+        widget.cellRight = right;
+        widget.cellBottom = bottom;
+        if (((long) right - left + 1) * ((long) bottom - top + 1) > MAX_WIDGET_CELLS) {
+            oversized.add(widget);
+            return;
+        }
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                getCell(column, row, true).add(widget);
+            }
+        }
+    }
+
+    private void removeFromIndex(ReferenceWidget widget) {
+        if (!widget.indexed) {
+            return;
+        }
+        widget.indexed = false;
+        final int left = widget.cellLeft;
+        final int top = widget.cellTop;
+        final int right = widget.cellRight;
+        final int bottom = widget.cellBottom;
+        if (((long) right - left + 1) * ((long) bottom - top + 1) > MAX_WIDGET_CELLS) {
+            oversized.remove(widget);
+            return;
+        }
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                getCell(column, row, false).remove(widget);
+            }
+        }
+    }
+
+    /**
+     * Is true if the widget and all containers holding it are visible.
+     */
+    private static boolean isShown(IWidget widget) {
+        for (IWidget w = widget; w != null; w = w.getContainer()) {
+            if (!w.isVisible()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public IWidget[] getAttachedWidgets() {
+        return widgets.toArray(new IWidget[widgets.size()]);
+    }
+
+    @Override
+    public IWidget[] getAttachedWidgets(boolean recursive) {
+        if (!recursive) {
+            return getAttachedWidgets();
+        }
+        final List<IWidget> all = new ArrayList<>(index.size() + nested.size());
+        visitWidgets(new IWidgetVisitor() {
+            @Override
+            public VisitResult visit(IWidget widget) {
+                all.add(widget);
+                return VisitResult.CONTINUE;
+            }
+        }, true);
+        return all.toArray(new IWidget[all.size()]);
+    }
+
+    @Override
+    public Set<IWidget> getAttachedWidgetsAsSet() {
+        return new HashSet<>(widgets);
+    }
+
+    @Override
+    public Set<IWidget> getAttachedWidgetsAsSet(boolean recursive) {
+        if (!recursive) {
+            return getAttachedWidgetsAsSet();
+        }
+        final Set<IWidget> all = new HashSet<IWidget>(index.values());
+        all.addAll(nested.values());
+        return all;
+    }
+
+    @Override
+    public boolean visitWidgets(IWidgetVisitor visitor, boolean recursive) {
+        return visitWidgets(visitor, null, recursive);
+    }
+
+    @Override
+    public boolean visitWidgets(IWidgetVisitor visitor, IWidgetFilter filter, boolean recursive) {
+        for (int i = 0; i < widgets.size(); i++) {
+            final IWidget widget = widgets.get(i);
+            VisitResult result = VisitResult.CONTINUE;
+            if (filter == null || filter.accept(widget)) {
+                result = visitor.visit(widget);
+            }
+            if (result == VisitResult.TERMINATE) {
+                return false;
+            }
+            if (recursive && result == VisitResult.CONTINUE) {
+                if (widget instanceof IContainer && !((IContainer) widget).visitChildren(visitor, filter, true)) {
+                    return false;
+                }
+                if (widget instanceof IScreen && !((IScreen) widget).visitWidgets(visitor, filter, true)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getWidgetCount() {
+        return widgets.size();
+    }
+
+    @Override
+    public IScreen attachWidget(String plugin, IWidget widget) {
+        if (index.containsKey(widget.getId())) {
+            return this;
+        }
+        if (widget == this) {
+            throw new IllegalArgumentException("A screen cannot be attached to itself");
+        }
+        widgets.add(widget);
+        register(plugin, widget);
+        return this;
+    }
+
+    @Override
+    public IScreen attachWidgets(String plugin, IWidget... widgets) {
+        beginBatch();
+        try {
+            for (IWidget widget : widgets) {
+                attachWidget(plugin, widget);
+            }
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    @Override
+    public IScreen removeWidget(IWidget widget) {
+        if (index.get(widget.getId()) != widget) {
+            return this;
+        }
+        if (widget.hasContainer()) {
+            widget.getContainer().removeChild(widget);
+        } else {
+            widgets.remove(widget);
+            unregister(widget);
+        }
+        return this;
+    }
+
+    @Override
+    public IScreen removeWidgets(String plugin) {
+        beginBatch();
+        try {
+            for (IWidget widget : getAttachedWidgets()) {
+                if (plugin.equals(widget.getPlugin())) {
+                    removeWidget(widget);
+                }
+            }
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    @Override
+    public IScreen beginBatch() {
+        batchDepth++;
+        return this;
+    }
+
+    @Override
+    public IScreen commitBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch was started");
+        }
+        if (batchDepth == 1) {
+            for (int i = 0; i < widgets.size(); i++) {
+                final IWidget widget = widgets.get(i);
+                if (widget instanceof IContainer && !((IContainer) widget).isLayoutValid()) {
+                    ((IContainer) widget).updateLayout();
+                }
+            }
+        }
+        if (--batchDepth == 0) {
+            for (int i = 0; i < pending.size(); i++) {
+                final ReferenceWidget widget = pending.get(i);
+                // Widgets removed since they moved were taken out of the index already
+                if (widget.indexStale && widget.screen == this) {
+                    widget.indexStale = false;
+                    updateIndex(widget);
+                }
+            }
+            pending.clear();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isBatching() {
+        return batchDepth > 0;
+    }
+
+    @Override
+    public IScreen batch(Runnable changes) {
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            commitBatch();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean containsWidget(IWidget widget) {
+        return index.get(widget.getId()) == widget;
+    }
+
+    @Override
+    public boolean containsWidget(UUID id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public boolean containsWidget(UUID id, boolean recursive) {
+        return index.containsKey(id) || recursive && nested.containsKey(id);
+    }
+
+    @Override
+    public IWidget getWidget(UUID id) {
+        return index.get(id);
+    }
+
+    @Override
+    public IWidget getWidget(UUID id, boolean recursive) {
+        final IWidget widget = index.get(id);
+        return widget != null || !recursive ? widget : nested.get(id);
+    }
+
+    @Override
+    public boolean visitDrawOrder(IWidgetVisitor visitor) {
+        for (List<ReferenceWidget> list : drawLists.values()) {
+            for (int i = 0; i < list.size(); i++) {
+                final IWidget widget = list.get(i);
+                if (isShown(widget) && visitor.visit(widget) == VisitResult.TERMINATE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getWidgetCount(RenderPriority priority) {
+        int count = 0;
+        for (IWidget widget : drawLists.get(priority)) {
+            if (widget.isVisible()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public IWidget getWidgetAt(int x, int y) {
+        ReferenceWidget top = null;
+        final Cell cell = getCell(x >> CELL_SHIFT, y >> CELL_SHIFT, false);
+        if (cell != null) {
+            for (int i = 0; i < cell.size; i++) {
+                top = above(cell.widgets[i], top, x, y);
+            }
+        }
+        for (int i = 0; i < oversized.size(); i++) {
+            top = above(oversized.get(i), top, x, y);
+        }
+        return top;
+    }
+
+    /**
+     * Gets the candidate if it is drawn above the current topmost widget at the point and shown there, else the current one.
+     */
+    private static ReferenceWidget above(ReferenceWidget candidate, ReferenceWidget top, int x, int y) {
+        if (top != null && DRAW_ORDER.compare(candidate, top) < 0) {
+            return top;
+        }
+        return candidate.contains(x, y) && isShown(candidate) ? candidate : top;
+    }
+
+    @Override
+    public IWidget getHoveredWidget() {
+        return getWidgetAt(mouseX, mouseY);
+    }
+
+    @Override
+    public List<IWidget> getWidgetsIn(Rectangle region) {
+        final List<IWidget> found = new ArrayList<>();
+        visitWidgetsIn(region, new IWidgetVisitor() {
+            @Override
+            public VisitResult visit(IWidget widget) {
+                found.add(widget);
+                return VisitResult.CONTINUE;
+            }
+        });
+        return found;
+    }
+
+    @Override
+    public boolean visitWidgetsIn(Rectangle region, IWidgetVisitor visitor) {
+        if (region.width <= 0 || region.height <= 0) {
+            return true;
+        }
+        final int left = region.x >> CELL_SHIFT;
+        final int top = region.y >> CELL_SHIFT;
+        final int right = (int) ((long) region.x + region.width - 1 >> CELL_SHIFT);
+        final int bottom = (int) ((long) region.y + region.height - 1 >> CELL_SHIFT);
+        if (((long) right - left + 1) * ((long) bottom - top + 1) > MAX_QUERY_CELLS) {
+            for (List<ReferenceWidget> list : drawLists.values()) {
+                for (int i = 0; i < list.size(); i++) {
+                    final ReferenceWidget widget = list.get(i);
+                    if (widget.intersects(region) && isShown(widget) && visitor.visit(widget) == VisitResult.TERMINATE) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        // Widgets covering several cells are listed in each of them, the stamp keeps them from being collected twice
+        final int stamp = ++nextQueryStamp;
+        final List<ReferenceWidget> found = new ArrayList<>();
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                final Cell cell = getCell(column, row, false);
+                if (cell != null) {
+                    for (int i = 0; i < cell.size; i++) {
+                        collect(cell.widgets[i], region, stamp, found);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < oversized.size(); i++) {
+            collect(oversized.get(i), region, stamp, found);
+        }
+        Collections.sort(found, DRAW_ORDER);
+        for (int i = 0; i < found.size(); i++) {
+            if (visitor.visit(found.get(i)) == VisitResult.TERMINATE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collect(ReferenceWidget widget, Rectangle region, int stamp, List<ReferenceWidget> found) {
+        if (widget.queryStamp != stamp) {
+            widget.queryStamp = stamp;
+            if (widget.intersects(region) && isShown(widget)) {
+                found.add(widget);
+            }
+        }
+    }
+
+    @Override
+    public IGeometryStore getGeometryStore() {
+        return store;
+    }
+
+    @Override
+    public ILayoutStats getLayoutStats() {
+        return stats;
+    }
+
+    @Override
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    @Override
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * The widgets listed in one cell of the spatial index, in no particular order.
+     */
+    private static final class Cell {
+        private ReferenceWidget[] widgets = new ReferenceWidget[4];
+        private int size;
+
+        private void add(ReferenceWidget widget) {
+            if (size == widgets.length) {
+                widgets = Arrays.copyOf(widgets, size * 2);
+            }
+            widgets[size++] = widget;
+        }
+
+        private void remove(ReferenceWidget widget) {
+            for (int i = 0; i < size; i++) {
+                if (widgets[i] == widget) {
+                    widgets[i] = widgets[--size];
+                    widgets[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
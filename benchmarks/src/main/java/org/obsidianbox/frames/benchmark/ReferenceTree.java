@@ -0,0 +1,71 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import org.obsidianbox.frames.ContainerType;
+
+/**
+ * Builds the widget trees the benchmarks run on.
+ */
+final class ReferenceTree {
+    static final int SCREEN_WIDTH = 1920;
+    static final int SCREEN_HEIGHT = 1080;
+
+    private ReferenceTree() {
+    }
+
+    /**
+     * Attaches a tree of about the given number of leaf widgets to the screen, with the given number of container levels
+     * below the root. Every container holds the same number of children and uses the given layout, and the tree is laid out
+     * once before it is returned.
+     *
+     * @return the root container.
+     */
+    static ReferenceContainer build(ReferenceScreen screen, ContainerType layout, int size, int depth) {
+        final int breadth = Math.max(2, (int) Math.round(Math.pow(size, 1.0 / depth)));
+        final ReferenceContainer root = new ReferenceContainer(layout);
+        root.setBounds(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+        fill(root, layout, breadth, depth, 0);
+        screen.attachWidget("Benchmark", root);
+        root.updateLayout();
+        return root;
+    }
+
+    private static int fill(ReferenceContainer container, ContainerType layout, int breadth, int depth, int leaves) {
+        for (int i = 0; i < breadth; i++) {
+            if (depth > 1) {
+                final ReferenceContainer child = new ReferenceContainer(layout);
+                child.setMargin(1);
+                leaves = fill(child, layout, breadth, depth - 1, leaves);
+                container.addChild(child);
+            } else {
+                final ReferenceWidget leaf = new ReferenceWidget(16 + leaves % 5 * 4, 8 + leaves % 3 * 2);
+                leaf.setMargin(1);
+                container.addChild(leaf);
+                leaves++;
+            }
+        }
+        return leaves;
+    }
+}
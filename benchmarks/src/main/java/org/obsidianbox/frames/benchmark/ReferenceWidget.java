@@ -0,0 +1,1491 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.obsidianbox.frames.Anchor;
+import org.obsidianbox.frames.IChatComponent;
+import org.obsidianbox.frames.IContainer;
+import org.obsidianbox.frames.IScreen;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.IWidgetTemplate;
+import org.obsidianbox.frames.NBTTagCompound;
+import org.obsidianbox.frames.RenderPriority;
+import org.obsidianbox.frames.WidgetProperty;
+import org.obsidianbox.frames.WidgetType;
+import org.obsidianbox.frames.util.StringDictionary;
+import org.obsidianbox.frames.util.WireFormat;
+
+/**
+ * <p>Minimal in-memory {@link org.obsidianbox.frames.IWidget}, standing in for a label in the benchmarks.
+ *
+ * <p>Positions are relative to the screen holding the widget; containers place their children in the coordinates of that
+ * screen. While attached, the geometry lives in the {@link ReferenceGeometryStore} of the screen. The offset and scale of
+ * nested screens are cached per widget and recomputed after invalidateTransform(), which also invalidates the widgets inside.
+ *
+ * <p>Every format is written property by property, in {@link org.obsidianbox.frames.WidgetProperty} id order, over the
+ * properties of getPropertyMask(), so the full formats and the deltas share one path per property and subclasses only add
+ * their own. The tooltip and the container link are not part of the serialized state.
+ */
+public class ReferenceWidget implements IWidget {
+    /**
+     * The properties of every reference widget.
+     */
+    static final long PROPERTIES = WidgetProperty.toMask(WidgetProperty.X, WidgetProperty.Y, WidgetProperty.WIDTH, WidgetProperty.HEIGHT,
+            WidgetProperty.VISIBLE, WidgetProperty.PRIORITY, WidgetProperty.ANCHOR, WidgetProperty.MARGIN, WidgetProperty.SIZE_LIMITS,
+            WidgetProperty.FIXED, WidgetProperty.GRID_CELL, WidgetProperty.FLEX);
+
+    private static final long SIZE = WidgetProperty.toMask(WidgetProperty.WIDTH, WidgetProperty.HEIGHT);
+
+    private UUID id = UUID.randomUUID();
+    private String plugin;
+    private RenderPriority priority = RenderPriority.Normal;
+    private Anchor anchor = Anchor.TOP_LEFT;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+    private int savedX;
+    private int savedY;
+    private boolean visible = true;
+    private boolean fixed;
+    private int marginTop;
+    private int marginRight;
+    private int marginBottom;
+    private int marginLeft;
+    private int minWidth;
+    private int maxWidth = Integer.MAX_VALUE;
+    private int minHeight;
+    private int maxHeight = Integer.MAX_VALUE;
+    private float grow;
+    private float shrink = 1;
+    private int gridRow = -1;
+    private int gridColumn = -1;
+    private int gridRowSpan = 1;
+    private int gridColumnSpan = 1;
+    private IChatComponent tooltip;
+    private IContainer container;
+    ReferenceScreen screen;
+    private long dirty;
+    private final Dimension measured = new Dimension();
+    private boolean measureValid;
+    private int measuredForWidth;
+    private int measuredForHeight;
+    private boolean transformValid;
+    private double originX;
+    private double originY;
+    private double scale;
+    // While attached, the geometry lives in the store of the screen and the fields above only hold it while detached
+    ReferenceGeometryStore store;
+    int slot = -1;
+    // State kept by the screen: draw order, the index cells covered and layout bookkeeping
+    long drawOrder;
+    boolean indexed;
+    int cellLeft;
+    int cellTop;
+    int cellRight;
+    int cellBottom;
+    boolean indexStale;
+    int queryStamp;
+    boolean remeasured;
+
+    public ReferenceWidget() {
+    }
+
+    public ReferenceWidget(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public void reset() {
+        if (store != null) {
+            throw new IllegalStateException("Cannot reset an attached widget");
+        }
+        id = UUID.randomUUID();
+        plugin = null;
+        priority = RenderPriority.Normal;
+        anchor = Anchor.TOP_LEFT;
+        x = y = width = height = 0;
+        visible = true;
+        fixed = false;
+        marginTop = marginRight = marginBottom = marginLeft = 0;
+        minWidth = minHeight = 0;
+        maxWidth = maxHeight = Integer.MAX_VALUE;
+        grow = 0;
+        shrink = 1;
+        gridRow = gridColumn = -1;
+        gridRowSpan = gridColumnSpan = 1;
+        tooltip = null;
+        dirty = 0;
+        measureValid = false;
+        transformValid = false;
+    }
+
+    /**
+     * Moves the geometry of this widget into the given store.
+     */
+    void attachGeometry(ReferenceGeometryStore target) {
+        final int i = target.add(this);
+        target.x[i] = x;
+        target.y[i] = y;
+        target.width[i] = width;
+        target.height[i] = height;
+        target.margins[i * 4] = marginTop;
+        target.margins[i * 4 + 1] = marginRight;
+        target.margins[i * 4 + 2] = marginBottom;
+        target.margins[i * 4 + 3] = marginLeft;
+        target.minWidth[i] = minWidth;
+        target.maxWidth[i] = maxWidth;
+        target.minHeight[i] = minHeight;
+        target.maxHeight[i] = maxHeight;
+        target.visible[i] = visible;
+        store = target;
+        slot = i;
+    }
+
+    /**
+     * Moves the geometry of this widget out of its store, back into its own fields.
+     */
+    void detachGeometry() {
+        final int i = slot;
+        x = store.x[i];
+        y = store.y[i];
+        width = store.width[i];
+        height = store.height[i];
+        marginTop = store.margins[i * 4];
+        marginRight = store.margins[i * 4 + 1];
+        marginBottom = store.margins[i * 4 + 2];
+        marginLeft = store.margins[i * 4 + 3];
+        minWidth = store.minWidth[i];
+        maxWidth = store.maxWidth[i];
+        minHeight = store.minHeight[i];
+        maxHeight = store.maxHeight[i];
+        visible = store.visible[i];
+        store.remove(i);
+        store = null;
+        slot = -1;
+    }
+
+    /**
+     * Writes the position and size with the side effects of setBounds(): the changed properties are marked dirty, the
+     * transform is invalidated and the screen is told the widget moved. The measure is invalidated if the size changed and
+     * remeasure is set; layouts arranging the widget keep it, as it stays the preferred size.
+     */
+    void writeBounds(int x, int y, int width, int height, boolean remeasure) {
+        long changed = 0;
+        if (store == null) {
+            if (this.x != x || this.y != y) {
+                changed |= (this.x != x ? WidgetProperty.X.getMask() : 0) | (this.y != y ? WidgetProperty.Y.getMask() : 0);
+                this.x = x;
+                this.y = y;
+            }
+            if (this.width != width || this.height != height) {
+                changed |= (this.width != width ? WidgetProperty.WIDTH.getMask() : 0) | (this.height != height ? WidgetProperty.HEIGHT.getMask() : 0);
+                this.width = width;
+                this.height = height;
+            }
+        } else {
+            final ReferenceGeometryStore s = store;
+            final int i = slot;
+            if (s.x[i] != x || s.y[i] != y) {
+                changed |= (s.x[i] != x ? WidgetProperty.X.getMask() : 0) | (s.y[i] != y ? WidgetProperty.Y.getMask() : 0);
+                s.x[i] = x;
+                s.y[i] = y;
+            }
+            if (s.width[i] != width || s.height[i] != height) {
+                changed |= (s.width[i] != width ? WidgetProperty.WIDTH.getMask() : 0) | (s.height[i] != height ? WidgetProperty.HEIGHT.getMask() : 0);
+                s.width[i] = width;
+                s.height[i] = height;
+            }
+        }
+        if (changed == 0) {
+            return;
+        }
+        markDirty(changed);
+        invalidateTransform();
+        if ((changed & SIZE) != 0) {
+            if (remeasure) {
+                invalidateMeasure();
+            }
+            resized();
+        }
+        if (screen != null) {
+            screen.onMoved(this);
+        }
+    }
+
+    /**
+     * Called after the size of this widget changed.
+     */
+    void resized() {
+    }
+
+    @Override
+    public WidgetType getType() {
+        return WidgetType.LABEL;
+    }
+
+    /**
+     * Gets the mask of the {@link org.obsidianbox.frames.WidgetProperty} bits this widget type has.
+     */
+    protected long getPropertyMask() {
+        return PROPERTIES;
+    }
+
+    /**
+     * Creates an unattached reference widget of the given type, as a reader does before filling it.
+     *
+     * @throws IOException if the type has no reference implementation.
+     */
+    static ReferenceWidget create(WidgetType type) throws IOException {
+        if (type == null) {
+            throw new IOException("Unknown widget type");
+        }
+        switch (type) {
+            case SCREEN:
+                return new ReferenceScreen(0, 0);
+            case CONTAINER:
+                return new ReferenceContainer();
+            case LABEL:
+                return new ReferenceWidget();
+            default:
+                throw new IOException("No reference widget of type " + type);
+        }
+    }
+
+    @Override
+    public void fromNBT(NBTTagCompound compound) throws IOException {
+        final ReferenceCompound tags = (ReferenceCompound) compound;
+        id = new UUID(tags.getLong("IdMost"), tags.getLong("IdLeast"));
+        plugin = tags.getString("Plugin");
+        for (long bits = getPropertyMask(); bits != 0; bits &= bits - 1) {
+            readProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), tags);
+        }
+    }
+
+    @Override
+    public void toNBT(NBTTagCompound compound) throws IOException {
+        final ReferenceCompound tags = (ReferenceCompound) compound;
+        tags.setInt("Type", getType().getId());
+        tags.setLong("IdMost", id.getMostSignificantBits());
+        tags.setLong("IdLeast", id.getLeastSignificantBits());
+        tags.setString("Plugin", plugin);
+        for (long bits = getPropertyMask(); bits != 0; bits &= bits - 1) {
+            writeProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), tags);
+        }
+    }
+
+    @Override
+    public void toNBTDelta(NBTTagCompound compound, long mask) throws IOException {
+        final ReferenceCompound tags = (ReferenceCompound) compound;
+        mask &= getPropertyMask();
+        tags.setLong("Mask", mask);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            writeProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), tags);
+        }
+    }
+
+    @Override
+    public long fromNBTDelta(NBTTagCompound compound) throws IOException {
+        final ReferenceCompound tags = (ReferenceCompound) compound;
+        final long mask = tags.getLong("Mask");
+        if ((mask & ~getPropertyMask()) != 0) {
+            throw new IOException("Delta holds properties this widget does not have: " + Long.toHexString(mask & ~getPropertyMask()));
+        }
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            readProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), tags);
+        }
+        return mask;
+    }
+
+    /**
+     * Writes the given property under its NBT keys.
+     */
+    protected void writeProperty(WidgetProperty property, ReferenceCompound tags) throws IOException {
+        switch (property) {
+            case X:
+                tags.setInt("X", getX());
+                break;
+            case Y:
+                tags.setInt("Y", getY());
+                break;
+            case WIDTH:
+                tags.setInt("Width", (int) getWidth());
+                break;
+            case HEIGHT:
+                tags.setInt("Height", (int) getHeight());
+                break;
+            case VISIBLE:
+                tags.setBoolean("Visible", isVisible());
+                break;
+            case PRIORITY:
+                tags.setInt("Priority", priority.getId());
+                break;
+            case ANCHOR:
+                tags.setInt("Anchor", anchor.getId());
+                break;
+            case MARGIN:
+                tags.setInt("MarginTop", getMarginTop());
+                tags.setInt("MarginRight", getMarginRight());
+                tags.setInt("MarginBottom", getMarginBottom());
+                tags.setInt("MarginLeft", getMarginLeft());
+                break;
+            case SIZE_LIMITS:
+                tags.setInt("MinWidth", getMinWidth());
+                tags.setInt("MaxWidth", getMaxWidth());
+                tags.setInt("MinHeight", getMinHeight());
+                tags.setInt("MaxHeight", getMaxHeight());
+                break;
+            case FIXED:
+                tags.setBoolean("Fixed", fixed);
+                break;
+            case GRID_CELL:
+                tags.setInt("GridRow", gridRow);
+                tags.setInt("GridColumn", gridColumn);
+                tags.setInt("GridRowSpan", gridRowSpan);
+                tags.setInt("GridColumnSpan", gridColumnSpan);
+                break;
+            case FLEX:
+                tags.setFloat("Grow", grow);
+                tags.setFloat("Shrink", shrink);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Reads the given property from its NBT keys.
+     *
+     * @throws IOException if an enum id is unknown.
+     */
+    protected void readProperty(WidgetProperty property, ReferenceCompound tags) throws IOException {
+        switch (property) {
+            case X:
+                setX(tags.getInt("X"));
+                break;
+            case Y:
+                setY(tags.getInt("Y"));
+                break;
+            case WIDTH:
+                setWidth(tags.getInt("Width"));
+                break;
+            case HEIGHT:
+                setHeight(tags.getInt("Height"));
+                break;
+            case VISIBLE:
+                setVisible(tags.getBoolean("Visible"));
+                break;
+            case PRIORITY:
+                setPriority(toPriority(tags.getInt("Priority")));
+                break;
+            case ANCHOR:
+                setAnchor(toAnchor(tags.getInt("Anchor")));
+                break;
+            case MARGIN:
+                setMargin(tags.getInt("MarginTop"), tags.getInt("MarginRight"), tags.getInt("MarginBottom"), tags.getInt("MarginLeft"));
+                break;
+            case SIZE_LIMITS:
+                setSizeLimits(tags.getInt("MinWidth"), tags.getInt("MaxWidth"), tags.getInt("MinHeight"), tags.getInt("MaxHeight"));
+                break;
+            case FIXED:
+                setFixed(tags.getBoolean("Fixed"));
+                break;
+            case GRID_CELL:
+                setGridCell(tags.getInt("GridRow"), tags.getInt("GridColumn"));
+                setGridSpan(tags.getInt("GridRowSpan"), tags.getInt("GridColumnSpan"));
+                break;
+            case FLEX:
+                setGrow(tags.getFloat("Grow"));
+                setShrink(tags.getFloat("Shrink"));
+                break;
+            default:
+                throw new IllegalArgumentException("Not a property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Writes the id, the plugin and every property in {@link org.obsidianbox.frames.WidgetProperty} id order, untagged.
+     * Children of containers are not written; stream writers send them as frames of their own.
+     */
+    @Override
+    public void toBinary(DataOutput out, StringDictionary strings) throws IOException {
+        WireFormat.writeUUID(out, id);
+        WireFormat.writeString(out, plugin, strings);
+        for (long bits = getBinaryMask(); bits != 0; bits &= bits - 1) {
+            writeProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), out, strings);
+        }
+    }
+
+    @Override
+    public void fromBinary(DataInput in, StringDictionary strings) throws IOException {
+        id = WireFormat.readUUID(in);
+        plugin = WireFormat.readString(in, strings);
+        for (long bits = getBinaryMask(); bits != 0; bits &= bits - 1) {
+            readProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), in, strings);
+        }
+    }
+
+    @Override
+    public void toBinaryDelta(DataOutput out, long mask, StringDictionary strings) throws IOException {
+        mask &= getBinaryMask();
+        WireFormat.writeVarLong(out, mask);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            writeProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), out, strings);
+        }
+    }
+
+    /**
+     * Applies a delta written by toBinaryDelta(). Since properties are untagged, a delta holding a property this widget does
+     * not have cannot be skipped and is rejected.
+     */
+    @Override
+    public long fromBinaryDelta(DataInput in, StringDictionary strings) throws IOException {
+        final long mask = WireFormat.readVarLong(in);
+        if ((mask & ~getBinaryMask()) != 0) {
+            throw new IOException("Delta holds properties this widget does not have: " + Long.toHexString(mask & ~getBinaryMask()));
+        }
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            readProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), in, strings);
+        }
+        return mask;
+    }
+
+    private long getBinaryMask() {
+        return getPropertyMask() & ~WidgetProperty.CHILDREN.getMask();
+    }
+
+    /**
+     * Writes the given property with the primitives of {@link org.obsidianbox.frames.util.WireFormat}.
+     */
+    protected void writeProperty(WidgetProperty property, DataOutput out, StringDictionary strings) throws IOException {
+        switch (property) {
+            case X:
+                WireFormat.writeSignedVarInt(out, getX());
+                break;
+            case Y:
+                WireFormat.writeSignedVarInt(out, getY());
+                break;
+            case WIDTH:
+                WireFormat.writeSignedVarInt(out, (int) getWidth());
+                break;
+            case HEIGHT:
+                WireFormat.writeSignedVarInt(out, (int) getHeight());
+                break;
+            case VISIBLE:
+                out.writeBoolean(isVisible());
+                break;
+            case PRIORITY:
+                WireFormat.writeVarInt(out, priority.getId());
+                break;
+            case ANCHOR:
+                WireFormat.writeVarInt(out, anchor.getId());
+                break;
+            case MARGIN:
+                WireFormat.writeSignedVarInt(out, getMarginTop());
+                WireFormat.writeSignedVarInt(out, getMarginRight());
+                WireFormat.writeSignedVarInt(out, getMarginBottom());
+                WireFormat.writeSignedVarInt(out, getMarginLeft());
+                break;
+            case SIZE_LIMITS:
+                WireFormat.writeSignedVarInt(out, getMinWidth());
+                WireFormat.writeSignedVarInt(out, getMaxWidth());
+                WireFormat.writeSignedVarInt(out, getMinHeight());
+                WireFormat.writeSignedVarInt(out, getMaxHeight());
+                break;
+            case FIXED:
+                out.writeBoolean(fixed);
+                break;
+            case GRID_CELL:
+                WireFormat.writeSignedVarInt(out, gridRow);
+                WireFormat.writeSignedVarInt(out, gridColumn);
+                WireFormat.writeSignedVarInt(out, gridRowSpan);
+                WireFormat.writeSignedVarInt(out, gridColumnSpan);
+                break;
+            case FLEX:
+                out.writeFloat(grow);
+                out.writeFloat(shrink);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Reads the given property written by writeProperty(WidgetProperty, DataOutput, StringDictionary).
+     *
+     * @throws IOException if an enum id is unknown.
+     */
+    protected void readProperty(WidgetProperty property, DataInput in, StringDictionary strings) throws IOException {
+        switch (property) {
+            case X:
+                setX(WireFormat.readSignedVarInt(in));
+                break;
+            case Y:
+                setY(WireFormat.readSignedVarInt(in));
+                break;
+            case WIDTH:
+                setWidth(WireFormat.readSignedVarInt(in));
+                break;
+            case HEIGHT:
+                setHeight(WireFormat.readSignedVarInt(in));
+                break;
+            case VISIBLE:
+                setVisible(in.readBoolean());
+                break;
+            case PRIORITY:
+                setPriority(toPriority(WireFormat.readVarInt(in)));
+                break;
+            case ANCHOR:
+                setAnchor(toAnchor(WireFormat.readVarInt(in)));
+                break;
+            case MARGIN:
+                setMargin(WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in));
+                break;
+            case SIZE_LIMITS:
+                setSizeLimits(WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in));
+                break;
+            case FIXED:
+                setFixed(in.readBoolean());
+                break;
+            case GRID_CELL:
+                setGridCell(WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in));
+                setGridSpan(WireFormat.readSignedVarInt(in), WireFormat.readSignedVarInt(in));
+                break;
+            case FLEX:
+                setGrow(in.readFloat());
+                setShrink(in.readFloat());
+                break;
+            default:
+                throw new IllegalArgumentException("Not a property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Writes the raw id, the fixed-width properties, then the plugin and the variable-length properties.
+     */
+    @Override
+    public void encode(ByteBuffer buffer) {
+        final int size = getEncodedSize();
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        final int start = buffer.position();
+        buffer.putLong(start, id.getMostSignificantBits());
+        buffer.putLong(start + 8, id.getLeastSignificantBits());
+        int index = start + 16;
+        long variable = 0;
+        for (long bits = getBinaryMask(); bits != 0; bits &= bits - 1) {
+            final WidgetProperty property = WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits));
+            final int width = getFixedSize(property);
+            if (width < 0) {
+                variable |= property.getMask();
+            } else {
+                putProperty(property, buffer, index);
+                index += width;
+            }
+        }
+        buffer.position(index);
+        WireFormat.putString(buffer, plugin);
+        for (long bits = variable; bits != 0; bits &= bits - 1) {
+            putProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), buffer);
+        }
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer) {
+        final int start = buffer.position();
+        int index = start + 16;
+        long variable = 0;
+        for (long bits = getBinaryMask(); bits != 0; bits &= bits - 1) {
+            final WidgetProperty property = WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits));
+            final int width = getFixedSize(property);
+            if (width < 0) {
+                variable |= property.getMask();
+            } else {
+                index += width;
+            }
+        }
+        if (buffer.limit() < index) {
+            throw new BufferUnderflowException();
+        }
+        id = new UUID(buffer.getLong(start), buffer.getLong(start + 8));
+        index = start + 16;
+        for (long bits = getBinaryMask() & ~variable; bits != 0; bits &= bits - 1) {
+            final WidgetProperty property = WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits));
+            getProperty(property, buffer, index);
+            index += getFixedSize(property);
+        }
+        buffer.position(index);
+        plugin = WireFormat.getString(buffer);
+        for (long bits = variable; bits != 0; bits &= bits - 1) {
+            getProperty(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits)), buffer);
+        }
+    }
+
+    @Override
+    public int getEncodedSize() {
+        int size = 16 + getEncodedSize(plugin);
+        for (long bits = getBinaryMask(); bits != 0; bits &= bits - 1) {
+            final WidgetProperty property = WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits));
+            final int width = getFixedSize(property);
+            size += width < 0 ? getVariableSize(property) : width;
+        }
+        return size;
+    }
+
+    @Override
+    public int getEncodedOffset(WidgetProperty property) {
+        if ((getBinaryMask() & property.getMask()) == 0 || getFixedSize(property) < 0) {
+            return -1;
+        }
+        int offset = 16;
+        for (long bits = getBinaryMask() & (property.getMask() - 1); bits != 0; bits &= bits - 1) {
+            offset += Math.max(0, getFixedSize(WidgetProperty.getPropertyFromId(Long.numberOfTrailingZeros(bits))));
+        }
+        return offset;
+    }
+
+    @Override
+    public boolean patch(ByteBuffer buffer, int start, WidgetProperty property) {
+        final int offset = getEncodedOffset(property);
+        if (offset < 0) {
+            return false;
+        }
+        putProperty(property, buffer, start + offset);
+        return true;
+    }
+
+    /**
+     * Gets the number of bytes the given property takes in the record written by encode(), or -1 if it is variable-length.
+     */
+    protected int getFixedSize(WidgetProperty property) {
+        switch (property) {
+            case VISIBLE:
+            case PRIORITY:
+            case ANCHOR:
+            case FIXED:
+                return 1;
+            case X:
+            case Y:
+            case WIDTH:
+            case HEIGHT:
+                return 4;
+            case FLEX:
+                return 8;
+            case MARGIN:
+            case SIZE_LIMITS:
+            case GRID_CELL:
+                return 16;
+            default:
+                throw new IllegalArgumentException("Not a property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Puts the given fixed-width property at the given index with absolute puts.
+     */
+    protected void putProperty(WidgetProperty property, ByteBuffer buffer, int index) {
+        switch (property) {
+            case X:
+                buffer.putInt(index, getX());
+                break;
+            case Y:
+                buffer.putInt(index, getY());
+                break;
+            case WIDTH:
+                buffer.putInt(index, (int) getWidth());
+                break;
+            case HEIGHT:
+                buffer.putInt(index, (int) getHeight());
+                break;
+            case VISIBLE:
+                buffer.put(index, (byte) (isVisible() ? 1 : 0));
+                break;
+            case PRIORITY:
+                buffer.put(index, (byte) priority.getId());
+                break;
+            case ANCHOR:
+                buffer.put(index, (byte) anchor.getId());
+                break;
+            case MARGIN:
+                buffer.putInt(index, getMarginTop());
+                buffer.putInt(index + 4, getMarginRight());
+                buffer.putInt(index + 8, getMarginBottom());
+                buffer.putInt(index + 12, getMarginLeft());
+                break;
+            case SIZE_LIMITS:
+                buffer.putInt(index, getMinWidth());
+                buffer.putInt(index + 4, getMaxWidth());
+                buffer.putInt(index + 8, getMinHeight());
+                buffer.putInt(index + 12, getMaxHeight());
+                break;
+            case FIXED:
+                buffer.put(index, (byte) (fixed ? 1 : 0));
+                break;
+            case GRID_CELL:
+                buffer.putInt(index, gridRow);
+                buffer.putInt(index + 4, gridColumn);
+                buffer.putInt(index + 8, gridRowSpan);
+                buffer.putInt(index + 12, gridColumnSpan);
+                break;
+            case FLEX:
+                buffer.putFloat(index, grow);
+                buffer.putFloat(index + 4, shrink);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a fixed-width property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Gets the given fixed-width property at the given index with absolute gets.
+     */
+    protected void getProperty(WidgetProperty property, ByteBuffer buffer, int index) {
+        switch (property) {
+            case X:
+                setX(buffer.getInt(index));
+                break;
+            case Y:
+                setY(buffer.getInt(index));
+                break;
+            case WIDTH:
+                setWidth(buffer.getInt(index));
+                break;
+            case HEIGHT:
+                setHeight(buffer.getInt(index));
+                break;
+            case VISIBLE:
+                setVisible(buffer.get(index) != 0);
+                break;
+            case PRIORITY:
+                final RenderPriority priority = RenderPriority.getRenderPriorityFromId(buffer.get(index));
+                if (priority == null) {
+                    throw new IllegalArgumentException("Unknown render priority " + buffer.get(index));
+                }
+                setPriority(priority);
+                break;
+            case ANCHOR:
+                final Anchor anchor = Anchor.getAnchorFromId(buffer.get(index));
+                if (anchor == null) {
+                    throw new IllegalArgumentException("Unknown anchor " + buffer.get(index));
+                }
+                setAnchor(anchor);
+                break;
+            case MARGIN:
+                setMargin(buffer.getInt(index), buffer.getInt(index + 4), buffer.getInt(index + 8), buffer.getInt(index + 12));
+                break;
+            case SIZE_LIMITS:
+                setSizeLimits(buffer.getInt(index), buffer.getInt(index + 4), buffer.getInt(index + 8), buffer.getInt(index + 12));
+                break;
+            case FIXED:
+                setFixed(buffer.get(index) != 0);
+                break;
+            case GRID_CELL:
+                setGridCell(buffer.getInt(index), buffer.getInt(index + 4));
+                setGridSpan(buffer.getInt(index + 8), buffer.getInt(index + 12));
+                break;
+            case FLEX:
+                setGrow(buffer.getFloat(index));
+                setShrink(buffer.getFloat(index + 4));
+                break;
+            default:
+                throw new IllegalArgumentException("Not a fixed-width property of this widget: " + property);
+        }
+    }
+
+    /**
+     * Gets the number of bytes the given variable-length property takes in the record written by encode().
+     */
+    protected int getVariableSize(WidgetProperty property) {
+        throw new IllegalArgumentException("Not a variable-length property of this widget: " + property);
+    }
+
+    /**
+     * Puts the given variable-length property at the buffer position.
+     */
+    protected void putProperty(WidgetProperty property, ByteBuffer buffer) {
+        throw new IllegalArgumentException("Not a variable-length property of this widget: " + property);
+    }
+
+    /**
+     * Gets the given variable-length property at the buffer position.
+     */
+    protected void getProperty(WidgetProperty property, ByteBuffer buffer) {
+        throw new IllegalArgumentException("Not a variable-length property of this widget: " + property);
+    }
+
+    /**
+     * Gets the number of bytes WireFormat.putString() writes for the given string.
+     */
+    static int getEncodedSize(String value) {
+        if (value == null) {
+            return 4;
+        }
+        int size = 4;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (!Character.isSurrogate(c)) {
+                size += 3;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    static RenderPriority toPriority(int id) throws IOException {
+        final RenderPriority priority = RenderPriority.getRenderPriorityFromId(id);
+        if (priority == null) {
+            throw new IOException("Unknown render priority " + id);
+        }
+        return priority;
+    }
+
+    static Anchor toAnchor(int id) throws IOException {
+        final Anchor anchor = Anchor.getAnchorFromId(id);
+        if (anchor == null) {
+            throw new IOException("Unknown anchor " + id);
+        }
+        return anchor;
+    }
+
+    private void setSizeLimits(int minWidth, int maxWidth, int minHeight, int maxHeight) {
+        setMinWidth(minWidth);
+        setMaxWidth(maxWidth);
+        setMinHeight(minHeight);
+        setMaxHeight(maxHeight);
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty != 0;
+    }
+
+    @Override
+    public boolean isDirty(WidgetProperty property) {
+        return (dirty & property.getMask()) != 0;
+    }
+
+    @Override
+    public long getDirtyMask() {
+        return dirty;
+    }
+
+    @Override
+    public void markDirty(WidgetProperty property) {
+        dirty |= property.getMask();
+    }
+
+    @Override
+    public void markDirty(long mask) {
+        dirty |= mask;
+    }
+
+    @Override
+    public void clearDirty(long mask) {
+        dirty &= ~mask;
+    }
+
+    @Override
+    public IWidgetTemplate getTemplate() {
+        return null;
+    }
+
+    @Override
+    public String getPlugin() {
+        return plugin;
+    }
+
+    void setPlugin(String plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public RenderPriority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public IWidget setPriority(RenderPriority priority) {
+        if (this.priority != priority) {
+            final RenderPriority old = this.priority;
+            this.priority = priority;
+            markDirty(WidgetProperty.PRIORITY);
+            if (screen != null) {
+                screen.onPriorityChanged(this, old);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public double getActualWidth() {
+        return getWidth();
+    }
+
+    @Override
+    public double getWidth() {
+        return store == null ? width : store.width[slot];
+    }
+
+    @Override
+    public IWidget setWidth(int width) {
+        writeBounds(getX(), getY(), width, (int) getHeight(), true);
+        return this;
+    }
+
+    @Override
+    public double getActualHeight() {
+        return getHeight();
+    }
+
+    @Override
+    public double getHeight() {
+        return store == null ? height : store.height[slot];
+    }
+
+    @Override
+    public IWidget setHeight(int height) {
+        writeBounds(getX(), getY(), (int) getWidth(), height, true);
+        return this;
+    }
+
+    @Override
+    public IScreen getScreen() {
+        return screen;
+    }
+
+    @Override
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public int getX() {
+        return store == null ? x : store.x[slot];
+    }
+
+    @Override
+    public double getScreenX() {
+        validateTransform();
+        return (originX + getX()) * scale;
+    }
+
+    @Override
+    public int getY() {
+        return store == null ? y : store.y[slot];
+    }
+
+    @Override
+    public double getScreenY() {
+        validateTransform();
+        return (originY + getY()) * scale;
+    }
+
+    @Override
+    public IWidget setX(int pos) {
+        writeBounds(pos, getY(), (int) getWidth(), (int) getHeight(), true);
+        return this;
+    }
+
+    @Override
+    public IWidget setY(int pos) {
+        writeBounds(getX(), pos, (int) getWidth(), (int) getHeight(), true);
+        return this;
+    }
+
+    @Override
+    public IWidget shiftXPos(int x) {
+        return setX(getX() + x);
+    }
+
+    @Override
+    public IWidget shiftYPos(int y) {
+        return setY(getY() + y);
+    }
+
+    @Override
+    public boolean isVisible() {
+        return store == null ? visible : store.visible[slot];
+    }
+
+    @Override
+    public IWidget setVisible(boolean enable) {
+        if (isVisible() != enable) {
+            if (store == null) {
+                visible = enable;
+            } else {
+                store.visible[slot] = enable;
+            }
+            markDirty(WidgetProperty.VISIBLE);
+        }
+        return this;
+    }
+
+    @Override
+    public void onTick() {
+    }
+
+    @Override
+    public IWidget setTooltip(IChatComponent component) {
+        tooltip = component;
+        markDirty(WidgetProperty.TOOLTIP);
+        return this;
+    }
+
+    @Override
+    public IChatComponent getTooltip() {
+        return tooltip;
+    }
+
+    @Override
+    public IContainer getContainer() {
+        return container;
+    }
+
+    @Override
+    public boolean hasContainer() {
+        return container != null;
+    }
+
+    @Override
+    public void setContainer(IContainer container) {
+        this.container = container;
+        markDirty(WidgetProperty.CONTAINER);
+        invalidateTransform();
+    }
+
+    @Override
+    public IWidget setFixed(boolean fixed) {
+        if (this.fixed != fixed) {
+            this.fixed = fixed;
+            markDirty(WidgetProperty.FIXED);
+            invalidateMeasure();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isFixed() {
+        return fixed;
+    }
+
+    @Override
+    public IWidget setMargin(int marginAll) {
+        return setMargin(marginAll, marginAll, marginAll, marginAll);
+    }
+
+    @Override
+    public IWidget setMargin(int marginTopBottom, int marginLeftRight) {
+        return setMargin(marginTopBottom, marginLeftRight, marginTopBottom, marginLeftRight);
+    }
+
+    @Override
+    public IWidget setMargin(int marginTop, int marginLeftRight, int marginBottom) {
+        return setMargin(marginTop, marginLeftRight, marginBottom, marginLeftRight);
+    }
+
+    @Override
+    public IWidget setMargin(int marginTop, int marginRight, int marginBottom, int marginLeft) {
+        if (store == null) {
+            this.marginTop = marginTop;
+            this.marginRight = marginRight;
+            this.marginBottom = marginBottom;
+            this.marginLeft = marginLeft;
+        } else {
+            final int i = slot * 4;
+            store.margins[i] = marginTop;
+            store.margins[i + 1] = marginRight;
+            store.margins[i + 2] = marginBottom;
+            store.margins[i + 3] = marginLeft;
+        }
+        markDirty(WidgetProperty.MARGIN);
+        return this;
+    }
+
+    @Override
+    public IWidget setMarginTop(int marginTop) {
+        return setMargin(marginTop, getMarginRight(), getMarginBottom(), getMarginLeft());
+    }
+
+    @Override
+    public IWidget setMarginRight(int marginRight) {
+        return setMargin(getMarginTop(), marginRight, getMarginBottom(), getMarginLeft());
+    }
+
+    @Override
+    public IWidget setMarginBottom(int marginBottom) {
+        return setMargin(getMarginTop(), getMarginRight(), marginBottom, getMarginLeft());
+    }
+
+    @Override
+    public IWidget setMarginLeft(int marginLeft) {
+        return setMargin(getMarginTop(), getMarginRight(), getMarginBottom(), marginLeft);
+    }
+
+    @Override
+    public int getMarginTop() {
+        return store == null ? marginTop : store.margins[slot * 4];
+    }
+
+    @Override
+    public int getMarginRight() {
+        return store == null ? marginRight : store.margins[slot * 4 + 1];
+    }
+
+    @Override
+    public int getMarginBottom() {
+        return store == null ? marginBottom : store.margins[slot * 4 + 2];
+    }
+
+    @Override
+    public int getMarginLeft() {
+        return store == null ? marginLeft : store.margins[slot * 4 + 3];
+    }
+
+    @Override
+    public IWidget setMinWidth(int min) {
+        if (store == null) {
+            minWidth = min;
+        } else {
+            store.minWidth[slot] = min;
+        }
+        markDirty(WidgetProperty.SIZE_LIMITS);
+        invalidateMeasure();
+        return this;
+    }
+
+    @Override
+    public int getMinWidth() {
+        return store == null ? minWidth : store.minWidth[slot];
+    }
+
+    @Override
+    public IWidget setMaxWidth(int max) {
+        if (store == null) {
+            maxWidth = max;
+        } else {
+            store.maxWidth[slot] = max;
+        }
+        markDirty(WidgetProperty.SIZE_LIMITS);
+        invalidateMeasure();
+        return this;
+    }
+
+    @Override
+    public int getMaxWidth() {
+        return store == null ? maxWidth : store.maxWidth[slot];
+    }
+
+    @Override
+    public IWidget setMinHeight(int min) {
+        if (store == null) {
+            minHeight = min;
+        } else {
+            store.minHeight[slot] = min;
+        }
+        markDirty(WidgetProperty.SIZE_LIMITS);
+        invalidateMeasure();
+        return this;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return store == null ? minHeight : store.minHeight[slot];
+    }
+
+    @Override
+    public IWidget setMaxHeight(int max) {
+        if (store == null) {
+            maxHeight = max;
+        } else {
+            store.maxHeight[slot] = max;
+        }
+        markDirty(WidgetProperty.SIZE_LIMITS);
+        invalidateMeasure();
+        return this;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return store == null ? maxHeight : store.maxHeight[slot];
+    }
+
+    @Override
+    public IWidget setGrow(float grow) {
+        this.grow = grow;
+        markDirty(WidgetProperty.FLEX);
+        return this;
+    }
+
+    @Override
+    public float getGrow() {
+        return grow;
+    }
+
+    @Override
+    public IWidget setShrink(float shrink) {
+        this.shrink = shrink;
+        markDirty(WidgetProperty.FLEX);
+        return this;
+    }
+
+    @Override
+    public float getShrink() {
+        return shrink;
+    }
+
+    @Override
+    public IWidget setGridCell(int row, int column) {
+        gridRow = row;
+        gridColumn = column;
+        markDirty(WidgetProperty.GRID_CELL);
+        return this;
+    }
+
+    @Override
+    public int getGridRow() {
+        return gridRow;
+    }
+
+    @Override
+    public int getGridColumn() {
+        return gridColumn;
+    }
+
+    @Override
+    public IWidget setGridSpan(int rowSpan, int columnSpan) {
+        gridRowSpan = rowSpan;
+        gridColumnSpan = columnSpan;
+        markDirty(WidgetProperty.GRID_CELL);
+        return this;
+    }
+
+    @Override
+    public int getGridRowSpan() {
+        return gridRowSpan;
+    }
+
+    @Override
+    public int getGridColumnSpan() {
+        return gridColumnSpan;
+    }
+
+    @Override
+    public Dimension measure(int availableWidth, int availableHeight) {
+        if (!measureValid || measuredForWidth != availableWidth || measuredForHeight != availableHeight) {
+            measurePreferred(availableWidth, availableHeight, measured);
+            if (!fixed) {
+                measured.width = Math.max(getMinWidth(), Math.min(getMaxWidth(), measured.width));
+                measured.height = Math.max(getMinHeight(), Math.min(getMaxHeight(), measured.height));
+            }
+            measuredForWidth = availableWidth;
+            measuredForHeight = availableHeight;
+            measureValid = true;
+            remeasured = true;
+        }
+        return measured;
+    }
+
+    /**
+     * Stores the size this widget wants, before min/max sizes are applied, in the given dimension. Widgets want their own size.
+     */
+    protected void measurePreferred(int availableWidth, int availableHeight, Dimension size) {
+        size.width = (int) getWidth();
+        size.height = (int) getHeight();
+    }
+
+    @Override
+    public IWidget arrange(int x, int y, int width, int height) {
+        writeBounds(x, y, width, height, false);
+        return this;
+    }
+
+    @Override
+    public void invalidateMeasure() {
+        measureValid = false;
+    }
+
+    @Override
+    public boolean isMeasureValid() {
+        return measureValid;
+    }
+
+    /**
+     * Is true if measure() would return its cached size for the given space.
+     */
+    boolean isMeasuredFor(int availableWidth, int availableHeight) {
+        return measureValid && measuredForWidth == availableWidth && measuredForHeight == availableHeight;
+    }
+
+    @Override
+    public IWidget savePosition() {
+        savedX = getX();
+        savedY = getY();
+        return this;
+    }
+
+    @Override
+    public IWidget restorePosition() {
+        setX(savedX);
+        return setY(savedY);
+    }
+
+    @Override
+    public IWidget setAnchor(Anchor anchor) {
+        if (this.anchor != anchor) {
+            this.anchor = anchor;
+            markDirty(WidgetProperty.ANCHOR);
+            invalidateTransform();
+        }
+        return this;
+    }
+
+    @Override
+    public Anchor getAnchor() {
+        return anchor;
+    }
+
+    @Override
+    public double getActualX() {
+        validateTransform();
+        return originX + getX();
+    }
+
+    @Override
+    public double getActualY() {
+        validateTransform();
+        return originY + getY();
+    }
+
+    @Override
+    public void invalidateTransform() {
+        // A valid transform implies valid transforms up to the screen, so an invalid one has nothing valid below it
+        if (transformValid) {
+            transformValid = false;
+            invalidateContentTransforms();
+        }
+    }
+
+    /**
+     * Invalidates the transforms of the widgets inside this one.
+     */
+    void invalidateContentTransforms() {
+    }
+
+    /**
+     * Recomputes the cached transform from the one of the container or screen holding this widget, if it was invalidated.
+     */
+    void validateTransform() {
+        if (transformValid) {
+            return;
+        }
+        final ReferenceWidget parent = container instanceof ReferenceWidget ? (ReferenceWidget) container : screen;
+        if (parent == null) {
+            originX = originY = 0;
+            scale = 1;
+        } else {
+            parent.validateTransform();
+            originX = parent.getContentX();
+            originY = parent.getContentY();
+            scale = parent.getContentScale();
+        }
+        transformValid = true;
+    }
+
+    /**
+     * Gets the unscaled x-coordinate of the origin the widgets inside this one are positioned from. Containers share the
+     * coordinates of their screen.
+     */
+    double getContentX() {
+        return originX;
+    }
+
+    double getContentY() {
+        return originY;
+    }
+
+    double getContentScale() {
+        return scale;
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(getX(), getY(), (int) getWidth(), (int) getHeight());
+    }
+
+    @Override
+    public IWidget setBounds(Rectangle rect) {
+        return setBounds(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    @Override
+    public IWidget setBounds(int x, int y, int width, int height) {
+        writeBounds(x, y, width, height, true);
+        return this;
+    }
+
+    /**
+     * Is true if the given screen point lies within the bounds of this widget.
+     */
+    boolean contains(int px, int py) {
+        final int x = getX();
+        final int y = getY();
+        return px >= x && py >= y && px < x + getWidth() && py < y + getHeight();
+    }
+
+    /**
+     * Is true if the given region overlaps the bounds of this widget. Empty regions and bounds overlap nothing.
+     */
+    boolean intersects(Rectangle region) {
+        final int x = getX();
+        final int y = getY();
+        return region.width > 0 && region.height > 0 && getWidth() > 0 && getHeight() > 0
+                && region.x < x + getWidth() && region.y < y + getHeight() && x < region.x + region.width && y < region.y + region.height;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.obsidianbox.frames.util.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares writing widget ids and texts through a DataOutput against writing them straight into heap and direct buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WireFormatBenchmark {
+    @Param({"100", "1000"})
+    public int widgets;
+
+    private UUID[] ids;
+    private String[] texts;
+    private ByteArrayOutputStream bytes;
+    private DataOutputStream out;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+
+    @Setup
+    public void setup() {
+        ids = new UUID[widgets];
+        texts = new String[widgets];
+        for (int i = 0; i < widgets; i++) {
+            ids[i] = UUID.randomUUID();
+            texts[i] = "Player " + i + " has joined the game";
+        }
+        bytes = new ByteArrayOutputStream();
+        out = new DataOutputStream(bytes);
+        heap = ByteBuffer.allocate(widgets * 64);
+        direct = ByteBuffer.allocateDirect(widgets * 64);
+    }
+
+    @Benchmark
+    public int writeDataOutput() throws IOException {
+        bytes.reset();
+        for (int i = 0; i < widgets; i++) {
+            WireFormat.writeUUID(out, ids[i]);
+            WireFormat.writeString(out, texts[i]);
+        }
+        return bytes.size();
+    }
+
+    @Benchmark
+    public int writeHeapBuffer() {
+        return write(heap);
+    }
+
+    @Benchmark
+    public int writeDirectBuffer() {
+        return write(direct);
+    }
+
+    private int write(ByteBuffer buffer) {
+        buffer.clear();
+        for (int i = 0; i < widgets; i++) {
+            WireFormat.putUUID(buffer, ids[i]);
+            WireFormat.putString(buffer, texts[i]);
+        }
+        return buffer.position();
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.obsidianbox.frames.Anchor;
+import org.obsidianbox.frames.ContainerType;
+import org.obsidianbox.frames.IWidget;
+import org.obsidianbox.frames.RenderPriority;
+import org.obsidianbox.frames.WidgetProperty;
+import org.obsidianbox.frames.util.StringDictionary;
+
+public class WidgetCodecTest {
+    private ReferenceScreen screen;
+    private ReferenceContainer root;
+    private final StringDictionary writer = new StringDictionary(64, 32);
+    private final StringDictionary reader = new StringDictionary(64, 32);
+
+    @Before
+    public void setup() {
+        screen = new ReferenceScreen(ReferenceTree.SCREEN_WIDTH, ReferenceTree.SCREEN_HEIGHT);
+        root = ReferenceTree.build(screen, ContainerType.GRID, 100, 2);
+        root.setColumns(ReferenceGridTrack.fixed(30), ReferenceGridTrack.auto(), ReferenceGridTrack.weighted(2f));
+        root.setFlex(true);
+        root.setPriority(RenderPriority.High);
+        root.setAnchor(Anchor.CENTER_RIGHT);
+        final IWidget leaf = ((ReferenceContainer) root.getChild(1)).getChild(0);
+        leaf.setVisible(false);
+        leaf.setMinWidth(4);
+        leaf.setMaxHeight(400);
+        leaf.setGridCell(1, 2);
+        leaf.setGridSpan(2, 1);
+        leaf.setFixed(true);
+    }
+
+    private static ReferenceCompound toNBT(IWidget widget) throws IOException {
+        final ReferenceCompound tags = new ReferenceCompound();
+        widget.toNBT(tags);
+        return tags;
+    }
+
+    /**
+     * The NBT of the widget without its children, which the binary format leaves to the stream.
+     */
+    private static ReferenceCompound toFlatNBT(IWidget widget) throws IOException {
+        final ReferenceCompound tags = toNBT(widget);
+        tags.setList("Children", null);
+        return tags;
+    }
+
+    private byte[] toBinary(IWidget widget) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        widget.toBinary(new DataOutputStream(bytes), writer);
+        return bytes.toByteArray();
+    }
+
+    private ReferenceWidget fromBinary(IWidget source, byte[] encoded) throws IOException {
+        final ReferenceWidget widget = ReferenceWidget.create(source.getType());
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        widget.fromBinary(in, reader);
+        assertEquals(0, in.available());
+        return widget;
+    }
+
+    @Test
+    public void binaryDecodesToSameNBT() throws IOException {
+        for (IWidget widget : screen.getAttachedWidgets(true)) {
+            assertEquals(toFlatNBT(widget), toFlatNBT(fromBinary(widget, toBinary(widget))));
+        }
+    }
+
+    @Test
+    public void nbtEncodesToSameBinary() throws IOException {
+        for (IWidget widget : screen.getAttachedWidgets(true)) {
+            final ReferenceWidget copy = ReferenceWidget.create(widget.getType());
+            copy.fromNBT(toNBT(widget));
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            widget.toBinary(new DataOutputStream(expected), null);
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            copy.toBinary(new DataOutputStream(actual), null);
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+    }
+
+    @Test
+    public void nbtKeepsChildren() throws IOException {
+        final ReferenceContainer copy = new ReferenceContainer();
+        copy.fromNBT(toNBT(root));
+        assertEquals(toNBT(root), toNBT(copy));
+        assertEquals(root.getDescendantCount(), copy.getDescendantCount());
+    }
+
+    @Test
+    public void deltasAgree() throws IOException {
+        final long mask = WidgetProperty.toMask(WidgetProperty.X, WidgetProperty.VISIBLE, WidgetProperty.MARGIN, WidgetProperty.FLEX);
+        for (IWidget widget : screen.getAttachedWidgets(true)) {
+            final ReferenceCompound base = toNBT(widget);
+            widget.setX(widget.getX() + 3);
+            widget.setVisible(!widget.isVisible());
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            widget.toBinaryDelta(new DataOutputStream(bytes), mask, writer);
+            final ReferenceWidget binary = ReferenceWidget.create(widget.getType());
+            binary.fromNBT(base);
+            final long applied = binary.fromBinaryDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), reader);
+            final ReferenceCompound tags = new ReferenceCompound();
+            widget.toNBTDelta(tags, mask);
+            final ReferenceWidget nbt = ReferenceWidget.create(widget.getType());
+            nbt.fromNBT(base);
+            assertEquals(applied, nbt.fromNBTDelta(tags));
+            assertEquals(toFlatNBT(widget), toFlatNBT(binary));
+            assertEquals(toFlatNBT(widget), toFlatNBT(nbt));
+        }
+    }
+}
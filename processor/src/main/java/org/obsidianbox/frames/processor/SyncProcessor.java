@@ -0,0 +1,511 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import org.obsidianbox.frames.SyncField;
+import org.obsidianbox.frames.Synced;
+import org.obsidianbox.frames.util.WireFormat;
+
+/**
+ * Generates a reflection-free codec for each class annotated with {@link org.obsidianbox.frames.Synced}.
+ */
+public class SyncProcessor extends AbstractProcessor {
+    private static final String WIRE = "WireFormat";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> types = new LinkedHashSet<>();
+        types.add(Synced.class.getCanonicalName());
+        types.add(SyncField.class.getCanonicalName());
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Synced.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@Synced can only be applied to classes");
+                continue;
+            }
+            final TypeElement type = (TypeElement) element;
+            final List<Field> fields = collectFields(type);
+            if (fields == null) {
+                continue;
+            }
+            try {
+                generate(type, fields);
+            } catch (IOException e) {
+                error(type, "Could not write codec: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the annotated fields of the type and its superclasses, ordered by id. Returns null if any field is invalid.
+     */
+    private List<Field> collectFields(TypeElement type) {
+        final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        final Map<Integer, Field> byId = new HashMap<>();
+        boolean valid = true;
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            for (VariableElement variable : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final SyncField annotation = variable.getAnnotation(SyncField.class);
+                if (annotation == null) {
+                    continue;
+                }
+                final Set<Modifier> modifiers = variable.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                    error(variable, "@SyncField fields must not be private, static or final");
+                    valid = false;
+                    continue;
+                }
+                if (!modifiers.contains(Modifier.PUBLIC) && !pkg.equals(processingEnv.getElementUtils().getPackageOf(current))) {
+                    error(variable, "@SyncField fields inherited from another package must be public");
+                    valid = false;
+                    continue;
+                }
+                final int id = annotation.value();
+                if (id < 0) {
+                    error(variable, "@SyncField id must be 0 or greater");
+                    valid = false;
+                    continue;
+                }
+                if (byId.containsKey(id)) {
+                    error(variable, "@SyncField id " + id + " is already used by " + byId.get(id).name);
+                    valid = false;
+                    continue;
+                }
+                final Kind kind = kindOf(variable.asType());
+                if (kind == null) {
+                    error(variable, "Unsupported @SyncField type " + variable.asType());
+                    valid = false;
+                    continue;
+                }
+                byId.put(id, new Field(id, variable.getSimpleName().toString(), variable.asType(), kind));
+            }
+        }
+        if (!valid) {
+            return null;
+        }
+        final List<Integer> ids = new ArrayList<>(byId.keySet());
+        Collections.sort(ids);
+        final List<Field> fields = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            fields.add(byId.get(id));
+        }
+        return fields;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private Kind kindOf(TypeMirror mirror) {
+        switch (mirror.getKind()) {
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case BYTE:
+            case SHORT:
+            case INT:
+                return Kind.INT;
+            case CHAR:
+                return Kind.CHAR;
+            case LONG:
+                return Kind.LONG;
+            case FLOAT:
+                return Kind.FLOAT;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+        final DeclaredType declared = (DeclaredType) mirror;
+        final TypeElement element = (TypeElement) declared.asElement();
+        final String name = element.getQualifiedName().toString();
+        if (element.getKind() == ElementKind.ENUM) {
+            return hasIdGetter(element) ? Kind.ENUM_ID : Kind.ENUM_ORDINAL;
+        }
+        switch (name) {
+            case "java.lang.String":
+                return Kind.STRING;
+            case "java.util.UUID":
+                return Kind.UUID;
+            case "org.obsidianbox.frames.util.Color":
+                return Kind.COLOR;
+            case "java.util.List":
+                final List<? extends TypeMirror> args = declared.getTypeArguments();
+                if (args.size() == 1 && args.get(0).toString().equals("java.lang.String")) {
+                    return Kind.STRING_LIST;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private boolean hasIdGetter(TypeElement element) {
+        for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals("getId") && method.getParameters().isEmpty()
+                    && method.getReturnType().getKind() == TypeKind.INT && !method.getModifiers().contains(Modifier.STATIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type, List<Field> fields) throws IOException {
+        final String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String target = type.getQualifiedName().toString();
+        final String codec = codecName(type);
+        final int version = type.getAnnotation(Synced.class).version();
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? codec : pkg + "." + codec, type).openWriter())) {
+            if (!pkg.isEmpty()) {
+                out.println("package " + pkg + ";");
+                out.println();
+            }
+            out.println("import java.io.DataInput;");
+            out.println("import java.io.DataOutput;");
+            out.println("import java.io.IOException;");
+            out.println();
+            out.println("import org.obsidianbox.frames.GuiFactory;");
+            out.println("import org.obsidianbox.frames.util.StringDictionary;");
+            out.println("import org.obsidianbox.frames.util.WireFormat;");
+            out.println();
+            out.println("/**");
+            out.println(" * Generated codec for {@link " + target + "}. Do not edit.");
+            out.println(" */");
+            out.println("public final class " + codec + " {");
+            out.println("    public static final int VERSION = " + version + ";");
+            final Map<String, String> enums = enumNames(fields);
+            for (Map.Entry<String, String> e : enums.entrySet()) {
+                out.println("    private static final " + e.getKey() + "[] " + enumValuesName(e.getValue()) + " = " + e.getKey() + ".values();");
+            }
+            out.println();
+            out.println("    private " + codec + "() {");
+            out.println("    }");
+            out.println();
+            writeEncoder(out, target, fields);
+            out.println();
+            writeDecoder(out, target, fields, enums);
+            for (Field field : fields) {
+                if (field.kind != Kind.ENUM_ID) {
+                    continue;
+                }
+                final String e = erasure(field.type);
+                final String name = enums.remove(e);
+                if (name == null) {
+                    continue;
+                }
+                out.println();
+                out.println("    private static " + e + " lookup" + name + "(int id) {");
+                out.println("        for (" + e + " value : " + enumValuesName(name) + ") {");
+                out.println("            if (value.getId() == id) {");
+                out.println("                return value;");
+                out.println("            }");
+                out.println("        }");
+                out.println("        return null;");
+                out.println("    }");
+            }
+            out.println("}");
+        }
+    }
+
+    private void writeEncoder(PrintWriter out, String target, List<Field> fields) {
+        out.println("    public static void write(" + target + " widget, DataOutput out) throws IOException {");
+        out.println("        write(widget, out, null);");
+        out.println("    }");
+        out.println();
+        out.println("    public static void write(" + target + " widget, DataOutput out, StringDictionary strings) throws IOException {");
+        out.println("        " + WIRE + ".writeVarInt(out, VERSION);");
+        out.println("        " + WIRE + ".writeVarInt(out, " + fields.size() + ");");
+        for (Field field : fields) {
+            final String value = "widget." + field.name;
+            out.println("        " + WIRE + ".writeVarInt(out, " + WireFormat.tag(field.id, field.kind.wireType) + "); // " + field.name);
+            switch (field.kind) {
+                case BOOLEAN:
+                    out.println("        " + WIRE + ".writeVarInt(out, " + value + " ? 1 : 0);");
+                    break;
+                case INT:
+                    out.println("        " + WIRE + ".writeSignedVarInt(out, " + value + ");");
+                    break;
+                case CHAR:
+                    out.println("        " + WIRE + ".writeVarInt(out, " + value + ");");
+                    break;
+                case LONG:
+                    out.println("        out.writeLong(" + value + ");");
+                    break;
+                case FLOAT:
+                    out.println("        out.writeFloat(" + value + ");");
+                    break;
+                case DOUBLE:
+                    out.println("        out.writeDouble(" + value + ");");
+                    break;
+                case STRING:
+                    out.println("        " + WIRE + ".writeString(out, " + value + ", strings);");
+                    break;
+                case UUID:
+                    out.println("        if (" + value + " == null) {");
+                    out.println("            " + WIRE + ".writeVarInt(out, 0);");
+                    out.println("        } else {");
+                    out.println("            " + WIRE + ".writeVarInt(out, 17);");
+                    out.println("            " + WIRE + ".writeUUID(out, " + value + ");");
+                    out.println("        }");
+                    break;
+                case COLOR:
+                    out.println("        if (" + value + " == null) {");
+                    out.println("            " + WIRE + ".writeVarInt(out, 0);");
+                    out.println("        } else {");
+                    out.println("            " + WIRE + ".writeVarInt(out, 5);");
+                    out.println("            out.writeInt(" + WIRE + ".packColor(" + value + "));");
+                    out.println("        }");
+                    break;
+                case ENUM_ID:
+                    out.println("        " + WIRE + ".writeVarInt(out, " + value + " == null ? 0 : " + value + ".getId() + 1);");
+                    break;
+                case ENUM_ORDINAL:
+                    out.println("        " + WIRE + ".writeVarInt(out, " + value + " == null ? 0 : " + value + ".ordinal() + 1);");
+                    break;
+                case STRING_LIST:
+                    out.println("        if (" + value + " == null) {");
+                    out.println("            " + WIRE + ".writeVarInt(out, 0);");
+                    out.println("        } else {");
+                    out.println("            " + WIRE + ".writeVarInt(out, " + value + ".size() + 1);");
+                    out.println("            for (String item : " + value + ") {");
+                    out.println("                " + WIRE + ".writeString(out, item, strings);");
+                    out.println("            }");
+                    out.println("        }");
+                    break;
+            }
+        }
+        out.println("    }");
+    }
+
+    private void writeDecoder(PrintWriter out, String target, List<Field> fields, Map<String, String> enums) {
+        out.println("    public static int read(" + target + " widget, DataInput in, GuiFactory factory) throws IOException {");
+        out.println("        return read(widget, in, factory, null);");
+        out.println("    }");
+        out.println();
+        out.println("    public static int read(" + target + " widget, DataInput in, GuiFactory factory, StringDictionary strings) throws IOException {");
+        out.println("        final int version = " + WIRE + ".readVarInt(in);");
+        out.println("        final int count = " + WIRE + ".readVarInt(in);");
+        out.println("        for (int i = 0; i < count; i++) {");
+        out.println("            final int tag = " + WIRE + ".readVarInt(in);");
+        out.println("            switch (tag) {");
+        for (Field field : fields) {
+            final String value = "widget." + field.name;
+            out.println("                case " + WireFormat.tag(field.id, field.kind.wireType) + ": { // " + field.name);
+            switch (field.kind) {
+                case BOOLEAN:
+                    out.println("                    " + value + " = " + WIRE + ".readVarInt(in) != 0;");
+                    break;
+                case INT:
+                    final String cast = field.type.getKind() == TypeKind.INT ? "" : "(" + field.type + ") ";
+                    out.println("                    " + value + " = " + cast + WIRE + ".readSignedVarInt(in);");
+                    break;
+                case CHAR:
+                    out.println("                    " + value + " = (char) " + WIRE + ".readVarInt(in);");
+                    break;
+                case LONG:
+                    out.println("                    " + value + " = in.readLong();");
+                    break;
+                case FLOAT:
+                    out.println("                    " + value + " = in.readFloat();");
+                    break;
+                case DOUBLE:
+                    out.println("                    " + value + " = in.readDouble();");
+                    break;
+                case STRING:
+                    out.println("                    " + value + " = " + WIRE + ".readString(in, strings);");
+                    break;
+                case UUID:
+                    out.println("                    " + value + " = " + WIRE + ".readVarInt(in) == 0 ? null : " + WIRE + ".readUUID(in);");
+                    break;
+                case COLOR:
+                    out.println("                    " + value + " = " + WIRE + ".readVarInt(in) == 0 ? null : " + WIRE + ".unpackColor(in.readInt(), factory);");
+                    break;
+                case ENUM_ID:
+                    out.println("                    final int id = " + WIRE + ".readVarInt(in);");
+                    out.println("                    " + value + " = id == 0 ? null : lookup" + enums.get(erasure(field.type)) + "(id - 1);");
+                    break;
+                case ENUM_ORDINAL:
+                    final String values = enumValuesName(enums.get(erasure(field.type)));
+                    out.println("                    final int ordinal = " + WIRE + ".readVarInt(in);");
+                    out.println("                    " + value + " = ordinal == 0 || ordinal > " + values + ".length ? null : " + values + "[ordinal - 1];");
+                    break;
+                case STRING_LIST:
+                    out.println("                    final int size = " + WIRE + ".readVarInt(in);");
+                    out.println("                    if (size == 0) {");
+                    out.println("                        " + value + " = null;");
+                    out.println("                    } else {");
+                    out.println("                        final java.util.List<String> items = new java.util.ArrayList<>(size - 1);");
+                    out.println("                        for (int j = 1; j < size; j++) {");
+                    out.println("                            items.add(" + WIRE + ".readString(in, strings));");
+                    out.println("                        }");
+                    out.println("                        " + value + " = items;");
+                    out.println("                    }");
+                    break;
+            }
+            out.println("                    break;");
+            out.println("                }");
+        }
+        out.println("                default:");
+        out.println("                    " + WIRE + ".skipField(in, tag, strings);");
+        out.println("            }");
+        out.println("        }");
+        out.println("        return version;");
+        out.println("    }");
+    }
+
+    private String codecName(TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        return name.append("Codec").toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * Maps each enum type used by the fields to the name its generated members are derived from: the simple name of the enum,
+     * or its qualified name with underscores if two enums share a simple name.
+     */
+    private Map<String, String> enumNames(List<Field> fields) {
+        final Map<String, String> simpleNames = new LinkedHashMap<>();
+        final Map<String, Integer> counts = new HashMap<>();
+        for (Field field : fields) {
+            if (field.kind != Kind.ENUM_ID && field.kind != Kind.ENUM_ORDINAL) {
+                continue;
+            }
+            final String e = erasure(field.type);
+            if (simpleNames.containsKey(e)) {
+                continue;
+            }
+            final String simple = processingEnv.getTypeUtils().asElement(field.type).getSimpleName().toString();
+            simpleNames.put(e, simple);
+            final Integer count = counts.get(simple);
+            counts.put(simple, count == null ? 1 : count + 1);
+        }
+        final Map<String, String> names = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : simpleNames.entrySet()) {
+            names.put(e.getKey(), counts.get(e.getValue()) == 1 ? e.getValue() : e.getKey().replace('.', '_'));
+        }
+        return names;
+    }
+
+    /**
+     * Gets the name of the cached values() array of an enum, such as ANCHOR_VALUES or RENDER_PRIORITY_VALUES.
+     */
+    private String enumValuesName(String name) {
+        final StringBuilder constant = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.append("_VALUES").toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private enum Kind {
+        BOOLEAN(WireFormat.WIRE_VARINT),
+        INT(WireFormat.WIRE_VARINT),
+        CHAR(WireFormat.WIRE_VARINT),
+        LONG(WireFormat.WIRE_FIXED64),
+        FLOAT(WireFormat.WIRE_FIXED32),
+        DOUBLE(WireFormat.WIRE_FIXED64),
+        STRING(WireFormat.WIRE_STRING),
+        UUID(WireFormat.WIRE_LENGTH),
+        COLOR(WireFormat.WIRE_LENGTH),
+        ENUM_ID(WireFormat.WIRE_VARINT),
+        ENUM_ORDINAL(WireFormat.WIRE_VARINT),
+        STRING_LIST(WireFormat.WIRE_STRING_LIST);
+
+        private final int wireType;
+        private Kind(int wireType) {
+            this.wireType = wireType;
+        }
+    }
+
+    private static final class Field {
+        private final int id;
+        private final String name;
+        private final TypeMirror type;
+        private final Kind kind;
+
+        private Field(int id, String name, TypeMirror type, Kind kind) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.kind = kind;
+        }
+    }
+}
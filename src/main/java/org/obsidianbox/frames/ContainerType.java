@@ -24,7 +24,37 @@
 package org.obsidianbox.frames;
 
 public enum ContainerType {
-    HORIZONTAL,
-    VERTICAL,
-    OVERLAY
+    HORIZONTAL(0),
+    VERTICAL(1),
+    OVERLAY(2),
+    GRID(3);
+
+    private final int id;
+    private ContainerType(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the container type ID.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the container type from an ID.
+     *
+     * @param id the id to look up the container type with.
+     * @return the container type, or null if the id is unknown.
+     */
+    public static ContainerType getContainerTypeFromId(int id) {
+        for (ContainerType type : values()) {
+            if (type.getId() == id) {
+                return type;
+            }
+        }
+        return null;
+    }
 }
@@ -23,6 +23,11 @@
  */
 package org.obsidianbox.frames;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ForkJoinPool;
+
 import org.obsidianbox.frames.util.Color;
 
 public interface GuiFactory {
@@ -46,4 +51,122 @@ public interface GuiFactory {
      * @return the created {@link org.obsidianbox.frames.util.Color}
      */
     Color createColor(int r, int g, int b, int a);
+
+    /**
+     * Creates a new, unattached widget of the given type in its default state, such as a decoder needs before calling fromBinary().
+     *
+     * @param type the {@link org.obsidianbox.frames.WidgetType} to create.
+     * @return the created {@link org.obsidianbox.frames.IWidget}.
+     */
+    IWidget createWidget(WidgetType type);
+
+    /**
+     * Gets the registry tracking which plugin attached each widget.
+     *
+     * @return the {@link org.obsidianbox.frames.IWidgetRegistry}.
+     */
+    IWidgetRegistry getWidgetRegistry();
+
+    /**
+     * Creates a grid {@link org.obsidianbox.frames.IGridTrack} with a fixed size.
+     *
+     * @param size the size, in pixels.
+     * @return the created {@link org.obsidianbox.frames.IGridTrack}.
+     */
+    IGridTrack createFixedTrack(int size);
+
+    /**
+     * Creates a grid {@link org.obsidianbox.frames.IGridTrack} sized to its largest widget.
+     *
+     * @return the created {@link org.obsidianbox.frames.IGridTrack}.
+     */
+    IGridTrack createAutoTrack();
+
+    /**
+     * Creates a grid {@link org.obsidianbox.frames.IGridTrack} sharing the remaining space by weight.
+     *
+     * @param weight the weight, greater than 0.
+     * @return the created {@link org.obsidianbox.frames.IGridTrack}.
+     */
+    IGridTrack createWeightedTrack(float weight);
+
+    /**
+     * Gets the pool of reusable widgets for the given type, creating it if needed.
+     *
+     * @param type the widget interface, such as {@link org.obsidianbox.frames.ILabel}.
+     * @param <T> the widget type.
+     * @return the {@link org.obsidianbox.frames.IWidgetPool} for the type.
+     */
+    <T extends IWidget> IWidgetPool<T> getWidgetPool(Class<T> type);
+
+    /**
+     * Creates a template from the given widget, which becomes its frozen prototype.
+     *
+     * @param prototype the unattached {@link org.obsidianbox.frames.IWidget}, or container subtree, to use as prototype.
+     * @return the created {@link org.obsidianbox.frames.IWidgetTemplate}.
+     * @throws IllegalStateException if the widget is attached to a screen or container.
+     */
+    IWidgetTemplate createTemplate(IWidget prototype);
+
+    /**
+     * Gets the encoder used to serialize screens and widgets once for many players.
+     *
+     * @return the {@link org.obsidianbox.frames.IBroadcastEncoder}.
+     */
+    IBroadcastEncoder getBroadcastEncoder();
+
+    /**
+     * Creates a writer streaming widgets to the given channel.
+     *
+     * @param channel the {@link java.nio.channels.WritableByteChannel} to write to.
+     * @return the created {@link org.obsidianbox.frames.IWidgetStreamWriter}.
+     */
+    IWidgetStreamWriter createStreamWriter(WritableByteChannel channel);
+
+    /**
+     * Creates a writer streaming widgets into the given buffer. Writing fails with a
+     * {@link java.nio.BufferOverflowException} if the buffer runs out of space.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to write to.
+     * @return the created {@link org.obsidianbox.frames.IWidgetStreamWriter}.
+     */
+    IWidgetStreamWriter createStreamWriter(ByteBuffer buffer);
+
+    /**
+     * Creates a reader decoding widgets from the given channel.
+     *
+     * @param channel the {@link java.nio.channels.ReadableByteChannel} to read from.
+     * @return the created {@link org.obsidianbox.frames.IWidgetStreamReader}.
+     */
+    IWidgetStreamReader createStreamReader(ReadableByteChannel channel);
+
+    /**
+     * Creates a reader decoding widgets from the given buffer.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to read from.
+     * @return the created {@link org.obsidianbox.frames.IWidgetStreamReader}.
+     */
+    IWidgetStreamReader createStreamReader(ByteBuffer buffer);
+
+    /**
+     * Gets the pool used to lay out containers in parallel.
+     *
+     * @return the {@link java.util.concurrent.ForkJoinPool}.
+     * @see org.obsidianbox.frames.IContainer#setParallelLayout(boolean)
+     */
+    ForkJoinPool getLayoutPool();
+
+    /**
+     * Sets the pool used to lay out containers in parallel.
+     *
+     * @param pool the {@link java.util.concurrent.ForkJoinPool} to use.
+     */
+    void setLayoutPool(ForkJoinPool pool);
+
+    /**
+     * Gets the scheduler running deferred container layouts.
+     *
+     * @return the {@link org.obsidianbox.frames.ILayoutScheduler}.
+     */
+    ILayoutScheduler getLayoutScheduler();
 }
@@ -0,0 +1,89 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.io.IOException;
+
+/**
+ * <p>Encodes screens and widgets once so the result can be sent to many players.
+ *
+ * <p>A shared screen, such as a scoreboard, is encoded with encodeScreen() and the same {@link org.obsidianbox.frames.IEncodedUpdate}
+ * is queued for every viewer. What differs per player, such as the state of widgets only one player sees or widgets a plugin
+ * attached for one player, is sent after it as a small patch built with encodeDelta() or encodeOverlay().
+ *
+ * <p>Screens, widgets and overlays are encoded as the frames described by {@link org.obsidianbox.frames.IWidgetStreamWriter},
+ * so every widget carries its {@link org.obsidianbox.frames.WidgetType} id and the receiver can create it before decoding it.
+ * Since an update is encoded once for every connection, widgets are written with toBinary() and toBinaryDelta() given a null
+ * dictionary, so their strings are sent as literals, never through the per-connection {@link org.obsidianbox.frames.util.StringDictionary}.
+ */
+public interface IBroadcastEncoder {
+    /**
+     * Encodes the given screen and all its widgets.
+     *
+     * @param screen the {@link org.obsidianbox.frames.IScreen} to encode.
+     * @return the {@link org.obsidianbox.frames.IEncodedUpdate}, with a reference count of 1.
+     * @throws IOException
+     */
+    IEncodedUpdate encodeScreen(IScreen screen) throws IOException;
+
+    /**
+     * Encodes the given widget in full.
+     *
+     * @param widget the {@link org.obsidianbox.frames.IWidget} to encode.
+     * @return the {@link org.obsidianbox.frames.IEncodedUpdate}, with a reference count of 1.
+     * @throws IOException
+     */
+    IEncodedUpdate encodeWidget(IWidget widget) throws IOException;
+
+    /**
+     * Encodes only the given properties of the widget, as toBinaryDelta() would.
+     *
+     * @param widget the {@link org.obsidianbox.frames.IWidget} to encode.
+     * @param mask the {@link org.obsidianbox.frames.WidgetProperty} bits to encode.
+     * @return the {@link org.obsidianbox.frames.IEncodedUpdate}, with a reference count of 1.
+     * @throws IOException
+     */
+    IEncodedUpdate encodeDelta(IWidget widget, long mask) throws IOException;
+
+    /**
+     * Encodes the prototype of the given template, to be sent once per connection before any of its instances. Widgets
+     * instantiated from a template are encoded as the template id, then the id and override delta of the instance and of each of
+     * its children.
+     *
+     * @param template the {@link org.obsidianbox.frames.IWidgetTemplate} to encode.
+     * @return the {@link org.obsidianbox.frames.IEncodedUpdate}, with a reference count of 1.
+     * @throws IOException
+     */
+    IEncodedUpdate encodeTemplate(IWidgetTemplate template) throws IOException;
+
+    /**
+     * Encodes widgets to be attached on top of a shared screen for one player.
+     *
+     * @param screen the shared {@link org.obsidianbox.frames.IScreen} the widgets are attached to.
+     * @param widgets the {@link org.obsidianbox.frames.IWidget}s to encode.
+     * @return the {@link org.obsidianbox.frames.IEncodedUpdate}, with a reference count of 1.
+     * @throws IOException
+     */
+    IEncodedUpdate encodeOverlay(IScreen screen, IWidget... widgets) throws IOException;
+}
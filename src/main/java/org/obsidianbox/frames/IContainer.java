@@ -25,7 +25,7 @@ package org.obsidianbox.frames;
 
 public interface IContainer extends IWidget {
     /**
-     * Adds a single widget to a container.
+     * Adds a single widget to a container. If the container is attached to a screen, the child is added to the id index of that screen.
      *
      * @param child the {@link org.obsidianbox.frames.IWidget} to add.
      * @return the container.
@@ -33,7 +33,7 @@ public interface IContainer extends IWidget {
     IContainer addChild(IWidget child);
 
     /**
-     * Adds a single widget to a container.
+     * Adds a single widget to a container. If the container is attached to a screen, the child is added to the id index of that screen.
      *
      * @param index the position to insert it at, use -1 for append.
      * @param child the {@link org.obsidianbox.frames.IWidget} to add.
@@ -42,7 +42,8 @@ public interface IContainer extends IWidget {
     IContainer insertChild(int index, IWidget child);
 
     /**
-     * Adds a list of children to a container.
+     * Adds a list of children to a container. If the container is attached to a screen, the children are added to the id index of that screen.
+     * The children are added as a single batch.
      *
      * @param children the {@link org.obsidianbox.frames.IWidget}s to add.
      * @return the container.
@@ -50,7 +51,7 @@ public interface IContainer extends IWidget {
     IContainer addChildren(IWidget... children);
 
     /**
-     * Removes a single widget from this container.
+     * Removes a single widget from this container. If the container is attached to a screen, the child is removed from the id index of that screen.
      *
      * @param child the {@link org.obsidianbox.frames.IWidget} to add.
      * @return the container.
@@ -58,12 +59,52 @@ public interface IContainer extends IWidget {
     IContainer removeChild(IWidget child);
 
     /**
-     * Get a list of widgets inside this container.
+     * Get a list of widgets inside this container. Modifying this array will not affect the container.
      *
      * @return the {@link org.obsidianbox.frames.IWidget}s in the container.
      */
     IWidget[] getChildren();
 
+    /**
+     * Get the number of widgets inside this container.
+     *
+     * @return the child count.
+     */
+    int getChildCount();
+
+    /**
+     * Get the widget at the given position inside this container. Together with getChildCount() this allows iterating the
+     * children without copying them.
+     *
+     * @param index the position of the child.
+     * @return the {@link org.obsidianbox.frames.IWidget} at that position.
+     * @throws IndexOutOfBoundsException if the index is negative or not less than getChildCount().
+     */
+    IWidget getChild(int index);
+
+    /**
+     * Walks the widgets inside this container, in layout order, without copying them. If recursive, the walk is depth-first
+     * and descends into nested containers.
+     *
+     * <p>See {@link org.obsidianbox.frames.IWidgetVisitor} for the rules on modifying the container during the walk.
+     *
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each child.
+     * @param recursive whether to walk the children of nested containers.
+     * @return true if the walk completed, false if the visitor terminated it.
+     */
+    boolean visitChildren(IWidgetVisitor visitor, boolean recursive);
+
+    /**
+     * Walks the widgets inside this container that are accepted by the filter, without copying them.
+     *
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each accepted child.
+     * @param filter the {@link org.obsidianbox.frames.IWidgetFilter} selecting the children to visit.
+     * @param recursive whether to walk the children of nested containers.
+     * @return true if the walk completed, false if the visitor terminated it.
+     * @see #visitChildren(IWidgetVisitor, boolean)
+     */
+    boolean visitChildren(IWidgetVisitor visitor, IWidgetFilter filter, boolean recursive);
+
     /**
      * Set the automatic layout type for children, triggered by setWidth() or setHeight().
      *
@@ -79,6 +120,65 @@ public interface IContainer extends IWidget {
      */
     ContainerType getLayout();
 
+    /**
+     * <p>Sets whether the HORIZONTAL and VERTICAL layouts distribute space by the grow and shrink weights of the children.
+     * When enabled, this takes precedence over setAuto().
+     *
+     * <p>Free space (or missing space) along the layout axis is split in proportion to the grow (or shrink) weights. When no
+     * child hits its min/max size, this takes one pass. Otherwise the children that hit a limit are clamped and removed from the
+     * distribution, and the remaining space is split again among the others; as each round clamps at least one child, the number
+     * of rounds is bounded by the number of children and no extra layout pass is needed.
+     *
+     * @param flex set to flex.
+     * @return the container.
+     */
+    IContainer setFlex(boolean flex);
+
+    /**
+     * Returns if the children are sized by their grow and shrink weights.
+     *
+     * @return true if flex, false if not.
+     */
+    boolean isFlex();
+
+    /**
+     * <p>Set the columns used by the GRID layout.
+     *
+     * <p>The grid is solved in two passes over the children. First each child spanning a single track sizes it, if it is AUTO,
+     * to at least its measured size and margins, within its min/max sizes. Then each child spanning several tracks, in child
+     * order, is compared with the total of the tracks it spans, counting FIXED tracks at their size, AUTO tracks at their size
+     * so far and WEIGHTED tracks as 0: any excess is spread evenly across the spanned AUTO tracks, the remaining pixels one
+     * each from the first, and a child spanning no AUTO track does not affect track sizes. Finally the space left after FIXED
+     * and AUTO tracks is split between WEIGHTED tracks. Children placed beyond the given tracks get implicit AUTO tracks.
+     *
+     * @param columns the {@link org.obsidianbox.frames.IGridTrack}s, left to right.
+     * @return the container.
+     */
+    IContainer setColumns(IGridTrack... columns);
+
+    /**
+     * Get the columns used by the GRID layout. Modifying this array will not affect the container.
+     *
+     * @return the {@link org.obsidianbox.frames.IGridTrack}s, left to right.
+     */
+    IGridTrack[] getColumns();
+
+    /**
+     * Set the rows used by the GRID layout.
+     *
+     * @param rows the {@link org.obsidianbox.frames.IGridTrack}s, top to bottom.
+     * @return the container.
+     * @see #setColumns(IGridTrack...)
+     */
+    IContainer setRows(IGridTrack... rows);
+
+    /**
+     * Get the rows used by the GRID layout. Modifying this array will not affect the container.
+     *
+     * @return the {@link org.obsidianbox.frames.IGridTrack}s, top to bottom.
+     */
+    IGridTrack[] getRows();
+
     /**
      * <p>Force the container to re-layout all non-fixed children.
      *
@@ -92,9 +192,12 @@ public interface IContainer extends IWidget {
     IContainer updateLayout();
 
     /**
-     * <p>Automatically call updateLayout during the next onTick().
+     * <p>Queue this container on the {@link org.obsidianbox.frames.ILayoutScheduler}, which usually lays it out during the next
+     * onTick(), or a later one when the tick's layout budget is spent.
      *
      * <p>This is automatically called when anything changes that would affect the container layout.
+     * Only invalidated containers are laid out, see invalidateLayout().
+     * While a batch is in progress, the layout is deferred until the batch is committed.
      *
      * <p>NOTE: Subclasses should ensure they don't prevent Container.onTick() from running.
      *
@@ -103,7 +206,128 @@ public interface IContainer extends IWidget {
     IContainer deferLayout();
 
     /**
-     * Set the contents alignment.
+     * <p>Marks this container as needing layout and defers it. The container's own measure is invalidated as well.
+     *
+     * <p>This is called on the container of a widget whenever that widget changes its size, margins, min/max sizes, visibility
+     * or fixed flag. When the container is laid out and its own measured size does not change, its parent is not invalidated,
+     * so the pass stops there and only this container's children are re-positioned. If its size does change, the parent is
+     * invalidated in turn.
+     *
+     * @return the container.
+     */
+    IContainer invalidateLayout();
+
+    /**
+     * Marks this container as needing its children re-positioned, without discarding any measured sizes.
+     *
+     * <p>This is called by setAlign() and setReverse(), so changing them arranges the children again with their cached sizes and
+     * does not measure any descendant.
+     *
+     * @return the container.
+     */
+    IContainer invalidateArrange();
+
+    /**
+     * Is true if this container has been laid out since it was last invalidated.
+     *
+     * @return true if the layout is valid, false if not.
+     */
+    boolean isLayoutValid();
+
+    /**
+     * <p>Sets whether child containers of this container are laid out in parallel.
+     *
+     * <p>When enabled, each child container holding at least getParallelThreshold() widgets (counting all descendants) is laid
+     * out as a separate task on the layout pool of the {@link org.obsidianbox.frames.GuiFactory}; smaller children are laid out
+     * on the calling thread. Each child container applies its own parallel setting and threshold to its children. Large child
+     * containers are measured as parallel tasks too, and this container waits for them before arranging its own children.
+     * The result is identical to a serial layout.
+     *
+     * <p>While the tasks run, they take the place of the thread that updates the screen, with these rules for the state they share:
+     * <ul>
+     * <li>Each task writes only the {@link org.obsidianbox.frames.IGeometryStore} slots of the widgets in its own subtree, so no
+     * two tasks write the same slot. The join publishes those writes to the calling thread.</li>
+     * <li>The same holds for invalidation, which never reaches past the container of a task. Before a container arranges its
+     * children, their measures are complete, computed by the container's task or by measure tasks it joins. Arranging then
+     * only calls arrange() and {@link org.obsidianbox.frames.IGeometryStore#setArrangedBounds(int, int, int, int, int)}, which
+     * keep measures. So no task ever calls invalidateLayout() or invalidateMeasure() on a container shared with another task,
+     * whether an ancestor or a sibling's subtree. Setters that invalidate the container of a widget, such as setWidth() or
+     * setMargin(), must not be called from a layout task.</li>
+     * <li>Slots are not compacted and the spatial index is not updated during the layout pass. Widgets that moved are collected
+     * per task and re-indexed once, on the calling thread, after the join.</li>
+     * <li>Each task counts its work separately, and the counts are added to the {@link org.obsidianbox.frames.ILayoutStats} of the
+     * screen after the join.</li>
+     * </ul>
+     *
+     * <p>Attaching or removing widgets from within a layout task is not allowed.
+     *
+     * @param parallel true to enable parallel layout, false to lay out serially.
+     * @return the container.
+     */
+    IContainer setParallelLayout(boolean parallel);
+
+    /**
+     * Is true if child containers of this container are laid out in parallel.
+     *
+     * @return true if parallel, false if not.
+     */
+    boolean isParallelLayout();
+
+    /**
+     * Sets the minimum number of widgets a child container must hold to be laid out as a separate parallel task.
+     *
+     * @param threshold the widget count.
+     * @return the container.
+     */
+    IContainer setParallelThreshold(int threshold);
+
+    /**
+     * Gets the minimum number of widgets a child container must hold to be laid out as a separate parallel task.
+     *
+     * @return the widget count.
+     */
+    int getParallelThreshold();
+
+    /**
+     * <p>Starts a batch of changes to this container and its children.
+     *
+     * <p>Until the matching commitBatch(), layout passes, spatial index updates and network syncs caused by changes to
+     * this container and its widgets are suppressed. They are applied exactly once when the batch is committed, so a chain
+     * of setters costs one layout and one update packet.
+     *
+     * <p>Batches nest; the work is applied when the outermost batch is committed.
+     *
+     * @return the container.
+     */
+    IContainer beginBatch();
+
+    /**
+     * Commits the current batch of changes. If this is the outermost batch, the pending layout, spatial index updates and
+     * network sync are applied.
+     *
+     * @return the container.
+     * @throws IllegalStateException if no batch was started.
+     */
+    IContainer commitBatch();
+
+    /**
+     * Is true if a batch of changes is in progress on this container.
+     *
+     * @return true if batching, false if not.
+     */
+    boolean isBatching();
+
+    /**
+     * Runs the given changes inside a batch. The batch is committed even if the changes throw an exception.
+     *
+     * @param changes the changes to apply.
+     * @return the container.
+     * @see #beginBatch()
+     */
+    IContainer batch(Runnable changes);
+
+    /**
+     * Set the contents alignment. Only the arrangement of the children is invalidated.
      *
      * @return the container.
      */
@@ -117,7 +341,7 @@ public interface IContainer extends IWidget {
     Anchor getAlign();
 
     /**
-     * Reverse the drawing order (right to left or bottom to top).
+     * Reverse the drawing order (right to left or bottom to top). Only the arrangement of the children is invalidated.
      *
      * @param reverse set to the reverse direction.
      * @return the container.
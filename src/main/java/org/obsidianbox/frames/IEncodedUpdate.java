@@ -0,0 +1,72 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>An immutable, encoded screen or widget update that can be sent to any number of players.
+ *
+ * <p>The update is reference counted: it starts with a count of 1, each recipient that holds on to it calls retain() and
+ * release() once sent, and the underlying buffer is recycled when the count reaches 0.
+ */
+public interface IEncodedUpdate {
+    /**
+     * Gets a read-only view of the encoded bytes, positioned at the start. Each call returns a new view, so recipients do not
+     * share positions, but the bytes are never copied.
+     *
+     * @return the encoded {@link java.nio.ByteBuffer}.
+     * @throws IllegalStateException if the update has been released.
+     */
+    ByteBuffer getBuffer();
+
+    /**
+     * Gets the number of encoded bytes.
+     *
+     * @return the size.
+     */
+    int size();
+
+    /**
+     * Increments the reference count.
+     *
+     * @return the update.
+     * @throws IllegalStateException if the update has been released.
+     */
+    IEncodedUpdate retain();
+
+    /**
+     * Decrements the reference count, recycling the buffer when it reaches 0.
+     *
+     * @return true if the buffer was recycled, false if it is still referenced.
+     */
+    boolean release();
+
+    /**
+     * Gets the reference count.
+     *
+     * @return the reference count, 0 if released.
+     */
+    int getRefCount();
+}
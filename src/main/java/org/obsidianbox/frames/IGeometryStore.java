@@ -0,0 +1,170 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * <p>The geometry of the widgets attached to a screen, held in primitive arrays indexed by a dense slot number.
+ *
+ * <p>A store holds the widgets attached directly to its screen and the children of their containers. Widgets attached to a
+ * nested screen, such as an {@link org.obsidianbox.frames.IScrollArea}, are held by the store of that nested screen, which
+ * itself occupies one slot in the store of its parent screen.
+ *
+ * <p>When a widget is attached, its position, size, margins and min/max sizes move into the store and its
+ * {@link org.obsidianbox.frames.IWidget} accessors read and write through to it; when it is removed they move back into the
+ * widget. Slots range from 0 to size() - 1. Removing a widget moves the widget in the last slot into the freed one, so slots
+ * stay dense and a scan over them touches contiguous memory.
+ *
+ * <p>The store is meant for layout, hit-testing and culling loops. It must only be read on the thread that updates the screen.
+ */
+public interface IGeometryStore {
+    /**
+     * Gets the number of occupied slots.
+     *
+     * @return the slot count.
+     */
+    int size();
+
+    /**
+     * Gets the widget occupying the given slot.
+     *
+     * @param slot the slot.
+     * @return the {@link org.obsidianbox.frames.IWidget} in the slot.
+     */
+    IWidget getWidget(int slot);
+
+    /**
+     * Gets the x-coordinate stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the x-coordinate.
+     */
+    int getX(int slot);
+
+    /**
+     * Gets the y-coordinate stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the y-coordinate.
+     */
+    int getY(int slot);
+
+    /**
+     * Gets the width stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the width.
+     */
+    int getWidth(int slot);
+
+    /**
+     * Gets the height stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the height.
+     */
+    int getHeight(int slot);
+
+    /**
+     * Gets the margin stored in the given slot.
+     *
+     * @param slot the slot.
+     * @param pos the {@link org.obsidianbox.frames.PositionOrientation} of the margin.
+     * @return the margin value.
+     */
+    int getMargin(int slot, PositionOrientation pos);
+
+    /**
+     * Gets the minimum width stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the minimum width.
+     */
+    int getMinWidth(int slot);
+
+    /**
+     * Gets the maximum width stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the maximum width.
+     */
+    int getMaxWidth(int slot);
+
+    /**
+     * Gets the minimum height stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the minimum height.
+     */
+    int getMinHeight(int slot);
+
+    /**
+     * Gets the maximum height stored in the given slot.
+     *
+     * @param slot the slot.
+     * @return the maximum height.
+     */
+    int getMaxHeight(int slot);
+
+    /**
+     * Is true if the widget in the given slot is visible.
+     *
+     * @param slot the slot.
+     * @return true if visible, false if not.
+     */
+    boolean isVisible(int slot);
+
+    /**
+     * <p>Sets the position and size stored in the given slot, with the same side effects as setBounds() on the widget: the
+     * X, Y, WIDTH and HEIGHT {@link org.obsidianbox.frames.WidgetProperty} bits that changed are marked dirty, the widget is
+     * moved in the spatial index, and its cached transform is invalidated. If the size changed, its measure is invalidated too.
+     *
+     * <p>Nothing happens if the values are unchanged. As it updates the spatial index, it must not be called from a layout
+     * pass; containers use setArrangedBounds() instead.
+     *
+     * @param slot the slot.
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @param width the width.
+     * @param height the height.
+     */
+    void setBounds(int slot, int x, int y, int width, int height);
+
+    /**
+     * <p>Sets the position and size stored in the given slot as a layout pass does, with the side effects of arrange() on the
+     * widget: the changed bits are marked dirty and the cached transform is invalidated, but the measure is kept, since it
+     * stays the preferred size of the widget, and the spatial index is not touched. The widget is only flagged as moved, and
+     * re-indexed once when the layout pass ends, on the thread that started it.
+     *
+     * <p>This writes nothing outside the slot, so parallel layout tasks may call it for the widgets of their own subtree. Called
+     * outside a layout pass, the widget is re-indexed right away.
+     *
+     * @param slot the slot.
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @param width the width.
+     * @param height the height.
+     * @see org.obsidianbox.frames.IContainer#setParallelLayout(boolean)
+     */
+    void setArrangedBounds(int slot, int x, int y, int width, int height);
+}
@@ -0,0 +1,51 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * A row or column of a {@link org.obsidianbox.frames.ContainerType#GRID} container. Tracks are created with the
+ * {@link org.obsidianbox.frames.GuiFactory}.
+ */
+public interface IGridTrack {
+    /**
+     * Gets how this track is sized.
+     *
+     * @return the {@link org.obsidianbox.frames.TrackSizing}.
+     */
+    TrackSizing getSizing();
+
+    /**
+     * Gets the size of a FIXED track, in pixels.
+     *
+     * @return the size, 0 for other tracks.
+     */
+    int getSize();
+
+    /**
+     * Gets the weight of a WEIGHTED track.
+     *
+     * @return the weight, 0 for other tracks.
+     */
+    float getWeight();
+}
@@ -0,0 +1,95 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * <p>Runs deferred container layouts within a time budget per tick.
+ *
+ * <p>Containers are queued by {@link org.obsidianbox.frames.IContainer#deferLayout()}. Each tick, queued layouts run in
+ * priority order: containers on the screen holding the focused control first, then containers on visible screens, then the
+ * rest, each group in the order it was queued. Once the tick budget is spent, the remaining layouts are carried over to the
+ * next tick. A container queued more than once runs only once.
+ */
+public interface ILayoutScheduler {
+    /**
+     * Queues the given container to be laid out.
+     *
+     * @param container the {@link org.obsidianbox.frames.IContainer} to lay out.
+     */
+    void schedule(IContainer container);
+
+    /**
+     * Runs queued layouts until the queue is empty or the tick budget is spent. This is called once per tick.
+     *
+     * @return the number of layouts run.
+     */
+    int process();
+
+    /**
+     * Sets the time per tick the scheduler may spend on layouts. At least one layout runs each tick, so the queue always progresses.
+     *
+     * @param nanos the budget, in nanoseconds.
+     */
+    void setTickBudget(long nanos);
+
+    /**
+     * Gets the time per tick the scheduler may spend on layouts.
+     *
+     * @return the budget, in nanoseconds.
+     */
+    long getTickBudget();
+
+    /**
+     * Gets the number of containers waiting to be laid out.
+     *
+     * @return the queue depth.
+     */
+    int getQueueDepth();
+
+    /**
+     * Gets the number of layouts run since the counters were last reset.
+     *
+     * @return the processed count.
+     */
+    long getProcessedCount();
+
+    /**
+     * Gets the average time between a container being queued and being laid out, since the counters were last reset.
+     *
+     * @return the average latency, in nanoseconds.
+     */
+    long getAverageLatency();
+
+    /**
+     * Gets the longest time between a container being queued and being laid out, since the counters were last reset.
+     *
+     * @return the maximum latency, in nanoseconds.
+     */
+    long getMaxLatency();
+
+    /**
+     * Resets the processed count and latency counters.
+     */
+    void resetStats();
+}
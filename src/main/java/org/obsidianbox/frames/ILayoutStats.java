@@ -0,0 +1,69 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * Counters describing the layout work done on a screen.
+ */
+public interface ILayoutStats {
+    /**
+     * Gets the number of layout passes run since the counters were last reset.
+     *
+     * @return the pass count.
+     */
+    long getPassCount();
+
+    /**
+     * Gets the number of widgets visited by the last layout pass.
+     *
+     * @return the visited widget count.
+     */
+    int getLastVisitedCount();
+
+    /**
+     * Gets the number of widgets whose size was recomputed by the last layout pass.
+     *
+     * @return the measured widget count.
+     */
+    int getLastMeasuredCount();
+
+    /**
+     * Gets the number of containers whose children were re-positioned by the last layout pass.
+     *
+     * @return the arranged container count.
+     */
+    int getLastArrangedCount();
+
+    /**
+     * Gets the total number of widgets visited by layout passes since the counters were last reset.
+     *
+     * @return the visited widget count.
+     */
+    long getTotalVisitedCount();
+
+    /**
+     * Resets all counters to 0.
+     */
+    void reset();
+}
@@ -0,0 +1,54 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * Supplies the rows of an {@link org.obsidianbox.frames.IVirtualContainer}.
+ *
+ * <p>The container only keeps widgets for the rows intersecting its view port. Row widgets are created with
+ * {@link #createRow()} and recycled for other rows by calling {@link #bindRow(IWidget, int)} again.
+ */
+public interface IRowAdapter {
+    /**
+     * Gets the total number of rows.
+     *
+     * @return the row count.
+     */
+    int getRowCount();
+
+    /**
+     * Creates a new, unbound row widget.
+     *
+     * @return the row {@link org.obsidianbox.frames.IWidget}.
+     */
+    IWidget createRow();
+
+    /**
+     * Fills the given row widget with the data of the row at the given index. The widget may previously have shown another row.
+     *
+     * @param row the row {@link org.obsidianbox.frames.IWidget}, created by createRow().
+     * @param index the index of the row to show.
+     */
+    void bindRow(IWidget row, int index);
+}
@@ -23,6 +23,8 @@
  */
 package org.obsidianbox.frames;
 
+import java.awt.Rectangle;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -58,7 +60,39 @@ public interface IScreen extends IWidget {
     Set<IWidget> getAttachedWidgetsAsSet(boolean recursive);
 
     /**
-     * Attaches a widget to this screen.
+     * Walks the widgets attached to this screen, in attachment order, without copying them. If recursive, the walk is depth-first:
+     * the children of each {@link org.obsidianbox.frames.IContainer} and the widgets of each attached screen are visited right
+     * after the widget holding them.
+     *
+     * <p>See {@link org.obsidianbox.frames.IWidgetVisitor} for the rules on modifying the screen during the walk.
+     *
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each widget.
+     * @param recursive whether to walk children and screens attached to this screen.
+     * @return true if the walk completed, false if the visitor terminated it.
+     */
+    boolean visitWidgets(IWidgetVisitor visitor, boolean recursive);
+
+    /**
+     * Walks the widgets attached to this screen that are accepted by the filter, without copying them.
+     *
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each accepted widget.
+     * @param filter the {@link org.obsidianbox.frames.IWidgetFilter} selecting the widgets to visit.
+     * @param recursive whether to walk children and screens attached to this screen.
+     * @return true if the walk completed, false if the visitor terminated it.
+     * @see #visitWidgets(IWidgetVisitor, boolean)
+     */
+    boolean visitWidgets(IWidgetVisitor visitor, IWidgetFilter filter, boolean recursive);
+
+    /**
+     * Gets the number of widgets attached to this screen, not including children or widgets of attached screens.
+     *
+     * @return the widget count.
+     */
+    int getWidgetCount();
+
+    /**
+     * Attaches a widget to this screen. The widget, and any children it holds if it is an {@link org.obsidianbox.frames.IContainer},
+     * are added to the id index of this screen.
      *
      * @param widget the {@link org.obsidianbox.frames.IWidget} to attach.
      * @param plugin the plugin that created this widget.
@@ -67,7 +101,8 @@ public interface IScreen extends IWidget {
     IScreen attachWidget(String plugin, IWidget widget);
 
     /**
-     * Attaches an array of widgets to this screen.
+     * Attaches an array of widgets to this screen. Each widget is added to the id index of this screen.
+     * The widgets are attached as a single batch.
      *
      * @param plugin the plugin that created this widget.
      * @param widget the {@link org.obsidianbox.frames.IWidget}s to attach.
@@ -76,7 +111,8 @@ public interface IScreen extends IWidget {
     IScreen attachWidgets(String plugin, IWidget... widget);
 
     /**
-     * Removes a widget from this screen.
+     * Removes a widget from this screen. The widget, and any children it holds if it is an {@link org.obsidianbox.frames.IContainer},
+     * are removed from the id index of this screen.
      *
      * @param widget the {@link org.obsidianbox.frames.IWidget} to remove.
      * @return the screen.
@@ -84,7 +120,53 @@ public interface IScreen extends IWidget {
     IScreen removeWidget(IWidget widget);
 
     /**
-     * Is true if the screen has the given widget attached to it. Uses a linear search, takes O(n) time to complete.
+     * Removes every widget the given plugin attached to this screen, as a single batch.
+     *
+     * @param plugin the plugin that created the widgets.
+     * @return the screen.
+     */
+    IScreen removeWidgets(String plugin);
+
+    /**
+     * <p>Starts a batch of changes to this screen, including widgets attached to it and their children.
+     *
+     * <p>Until the matching commitBatch(), layout passes, spatial index updates and network syncs caused by changes to
+     * this screen and its widgets are suppressed. They are applied exactly once when the batch is committed, so a chain
+     * of setters costs one layout and one update packet.
+     *
+     * <p>Batches nest; the work is applied when the outermost batch is committed.
+     *
+     * @return the screen.
+     */
+    IScreen beginBatch();
+
+    /**
+     * Commits the current batch of changes. If this is the outermost batch, the pending layout, spatial index updates and
+     * network sync are applied.
+     *
+     * @return the screen.
+     * @throws IllegalStateException if no batch was started.
+     */
+    IScreen commitBatch();
+
+    /**
+     * Is true if a batch of changes is in progress on this screen.
+     *
+     * @return true if batching, false if not.
+     */
+    boolean isBatching();
+
+    /**
+     * Runs the given changes inside a batch. The batch is committed even if the changes throw an exception.
+     *
+     * @param changes the changes to apply.
+     * @return the screen.
+     * @see #beginBatch()
+     */
+    IScreen batch(Runnable changes);
+
+    /**
+     * Is true if the screen has the given widget attached to it. Uses the id index, takes O(1) time to complete.
      *
      * @param widget the {@link org.obsidianbox.frames.IWidget} to search for.
      * @return true if the widget was found, false if not.
@@ -92,7 +174,7 @@ public interface IScreen extends IWidget {
     boolean containsWidget(IWidget widget);
 
     /**
-     * Is true if the screen has a widget with the given id attached to it. Uses a linear search, takes O(n) time to complete.
+     * Is true if the screen has a widget with the given id attached to it. Uses the id index, takes O(1) time to complete.
      *
      * @param id the id to search for.
      * @return true if the widget was found, false if not.
@@ -100,13 +182,112 @@ public interface IScreen extends IWidget {
     boolean containsWidget(UUID id);
 
     /**
-     * Gets the widget that is associated with the given id, or null if none was found.
+     * Is true if the screen has a widget with the given id attached to it, and if recursive, attached to any screen attached
+     * to this screen. Uses the id index, takes O(1) time to complete.
+     *
+     * @param id the id to search for.
+     * @param recursive whether to search screens attached to this screen.
+     * @return true if the widget was found, false if not.
+     */
+    boolean containsWidget(UUID id, boolean recursive);
+
+    /**
+     * Gets the widget that is associated with the given id, or null if none was found. Uses the id index, takes O(1) time to complete.
      *
      * @param id the id to search for.
      * @return widget if found, null if not.
      */
     IWidget getWidget(UUID id);
 
+    /**
+     * Gets the widget that is associated with the given id, and if recursive, attached to any screen attached to this screen,
+     * or null if none was found. Uses the id index, takes O(1) time to complete.
+     *
+     * <p>Nested screens (such as an {@link org.obsidianbox.frames.IScrollArea}) register their widgets with the index of the
+     * screen they are attached to, so a recursive lookup never walks the nested screens or rebuilds the index.
+     *
+     * @param id the id to search for.
+     * @param recursive whether to search screens attached to this screen.
+     * @return widget if found, null if not.
+     */
+    IWidget getWidget(UUID id, boolean recursive);
+
+    /**
+     * Walks the visible widgets attached to this screen in draw order, without copying or sorting them: each
+     * {@link org.obsidianbox.frames.RenderPriority} from Highest to Lowest, and within a priority in attachment order.
+     *
+     * <p>The screen keeps one draw list per priority, updated when a widget is attached, removed, or changes its priority or
+     * visibility, so producing a frame is a linear walk. Attached screens are visited as a single widget; renderers walk their
+     * draw order when rendering them.
+     *
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each widget to draw.
+     * @return true if the walk completed, false if the visitor terminated it.
+     */
+    boolean visitDrawOrder(IWidgetVisitor visitor);
+
+    /**
+     * Gets the number of visible widgets attached to this screen with the given priority.
+     *
+     * @param priority the {@link org.obsidianbox.frames.RenderPriority} to count.
+     * @return the widget count.
+     */
+    int getWidgetCount(RenderPriority priority);
+
+    /**
+     * Gets the topmost visible widget containing the given point, or null if there is none. The topmost widget is the one
+     * drawn last, see visitDrawOrder(): widgets with {@link org.obsidianbox.frames.RenderPriority#Lowest} priority are tested
+     * first, through to {@link org.obsidianbox.frames.RenderPriority#Highest}, and among widgets of the same priority the last
+     * attached is on top.
+     *
+     * <p>Uses the spatial index of this screen, which is kept in sync when a widget moves, resizes, changes visibility or is
+     * positioned by a container layout. Only the widgets sharing the index cell of the point are tested.
+     *
+     * @param x the x-coordinate on this screen.
+     * @param y the y-coordinate on this screen.
+     * @return the topmost {@link org.obsidianbox.frames.IWidget} at the point, null if none.
+     */
+    IWidget getWidgetAt(int x, int y);
+
+    /**
+     * Gets the topmost visible widget under the mouse, or null if there is none.
+     *
+     * @return the topmost {@link org.obsidianbox.frames.IWidget} at getMouseX(), getMouseY().
+     * @see #getWidgetAt(int, int)
+     */
+    IWidget getHoveredWidget();
+
+    /**
+     * Gets a list of all visible widgets whose bounds overlap the given region. Modifying this list will not affect the screen.
+     *
+     * @param region the {@link java.awt.Rectangle} to test against, in screen coordinates.
+     * @return list of the overlapping {@link org.obsidianbox.frames.IWidget}s, in render order.
+     */
+    List<IWidget> getWidgetsIn(Rectangle region);
+
+    /**
+     * Walks all visible widgets whose bounds overlap the given region, in render order, without copying them.
+     *
+     * @param region the {@link java.awt.Rectangle} to test against, in screen coordinates.
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each overlapping widget.
+     * @return true if the walk completed, false if the visitor terminated it.
+     */
+    boolean visitWidgetsIn(Rectangle region, IWidgetVisitor visitor);
+
+    /**
+     * Gets the store holding the geometry of the widgets attached to this screen, including the children of their containers.
+     * Widgets of attached screens are held by the store of those screens.
+     *
+     * @return the {@link org.obsidianbox.frames.IGeometryStore}.
+     */
+    IGeometryStore getGeometryStore();
+
+    /**
+     * Gets the counters describing the layout passes run on this screen and its containers.
+     *
+     * @return the {@link org.obsidianbox.frames.ILayoutStats}.
+     */
+    ILayoutStats getLayoutStats();
+
     /**
      * Gets the height of the screen.
      *
@@ -0,0 +1,127 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * <p>A scrollable container whose children are produced on demand by an {@link org.obsidianbox.frames.IRowAdapter}.
+ *
+ * <p>Only the rows intersecting the view port are materialized as widgets; getChildren(), getChildCount() and the visitor walks
+ * see those rows only. Rows scrolled out of view are recycled for rows scrolled into view, so the number of live widgets is
+ * bounded by the view port size rather than the row count.
+ *
+ * <p>Rows are stacked along the {@link org.obsidianbox.frames.ContainerType#VERTICAL} or
+ * {@link org.obsidianbox.frames.ContainerType#HORIZONTAL} layout. Each row takes getRowSize() pixels along that axis, so the
+ * inner size is getRowCount() * getRowSize() and the rows to show follow directly from the scroll position.
+ */
+public interface IVirtualContainer extends IContainer, IScrollable {
+    /**
+     * Sets the adapter supplying the rows. All materialized rows are discarded.
+     *
+     * @param adapter the {@link org.obsidianbox.frames.IRowAdapter}.
+     * @return the container.
+     */
+    IVirtualContainer setAdapter(IRowAdapter adapter);
+
+    /**
+     * Gets the adapter supplying the rows.
+     *
+     * @return the {@link org.obsidianbox.frames.IRowAdapter}.
+     */
+    IRowAdapter getAdapter();
+
+    /**
+     * Sets the automatic layout type for rows.
+     *
+     * @param type the {@link org.obsidianbox.frames.ContainerType}.
+     * @return the container.
+     * @throws IllegalArgumentException if the type is not VERTICAL or HORIZONTAL.
+     */
+    IVirtualContainer setLayout(ContainerType type);
+
+    /**
+     * Sets the size of each row along the layout axis, in pixels.
+     *
+     * @param size the row size.
+     * @return the container.
+     */
+    IVirtualContainer setRowSize(int size);
+
+    /**
+     * Gets the size of each row along the layout axis, in pixels.
+     *
+     * @return the row size.
+     */
+    int getRowSize();
+
+    /**
+     * Gets the total number of rows, as reported by the adapter.
+     *
+     * @return the row count.
+     */
+    int getRowCount();
+
+    /**
+     * Gets the index of the first row intersecting the view port.
+     *
+     * @return the first visible row, -1 if there are no rows.
+     */
+    int getFirstVisibleRow();
+
+    /**
+     * Gets the index of the last row intersecting the view port.
+     *
+     * @return the last visible row, -1 if there are no rows.
+     */
+    int getLastVisibleRow();
+
+    /**
+     * Gets the widget currently showing the given row, or null if the row is not materialized.
+     *
+     * @param index the row index.
+     * @return the row {@link org.obsidianbox.frames.IWidget}, null if not materialized.
+     */
+    IWidget getRowWidget(int index);
+
+    /**
+     * Scrolls so the given row is inside the view port, in the same way as ensureVisible().
+     *
+     * @param index the row index.
+     */
+    void ensureRowVisible(int index);
+
+    /**
+     * Notifies the container that the row count or the data of any row changed. All materialized rows are bound again.
+     *
+     * @return the container.
+     */
+    IVirtualContainer notifyDataChanged();
+
+    /**
+     * Notifies the container that the data of the given row changed. The row is bound again if it is materialized.
+     *
+     * @param index the row index.
+     * @return the container.
+     */
+    IVirtualContainer notifyRowChanged(int index);
+}
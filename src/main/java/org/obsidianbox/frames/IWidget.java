@@ -23,10 +23,16 @@
  */
 package org.obsidianbox.frames;
 
+import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
+import org.obsidianbox.frames.util.StringDictionary;
+
 public interface IWidget {
     /**
      * Returns a unique id for this widget.
@@ -35,6 +41,26 @@ public interface IWidget {
      */
     UUID getId();
 
+    /**
+     * <p>Returns this widget to the state of a newly created widget of its type, so it can be reused by an
+     * {@link org.obsidianbox.frames.IWidgetPool}.
+     *
+     * <p>The widget gets a new id, since clients may still refer to the old one. The plugin, screen and container links are
+     * cleared, margins are set to 0, the min/max sizes, anchor, tooltip, priority, fixed and visible flags are restored to
+     * their defaults, and any type-specific state (text, colors, urls, items, etc.) is reset as well. All properties are marked
+     * dirty so the widget is sent in full when it is next attached.
+     *
+     * @throws IllegalStateException if the widget is attached to a screen or container.
+     */
+    void reset();
+
+    /**
+     * Gets the concrete type of this widget, used to create the matching widget when it is decoded.
+     *
+     * @return the {@link org.obsidianbox.frames.WidgetType}.
+     */
+    WidgetType getType();
+
     /**
      * Called after this widget this created for serialization.
      *
@@ -51,6 +77,179 @@ public interface IWidget {
      */
     void toNBT(NBTTagCompound compound) throws IOException;
 
+    /**
+     * Writes only the given properties of this widget, together with the mask itself, so the receiver can apply them with
+     * fromNBTDelta(). Properties in the mask that do not exist on this widget type are ignored.
+     *
+     * <p>The usual sync cycle is to take getDirtyMask(), clear it with clearDirty(mask), send toNBTDelta(compound, mask), and
+     * if the client does not acknowledge the update, restore the bits with markDirty(mask) so they are sent again.
+     *
+     * @param compound the NBTTagCompound.
+     * @param mask the {@link org.obsidianbox.frames.WidgetProperty} bits to write.
+     * @throws IOException
+     */
+    void toNBTDelta(NBTTagCompound compound, long mask) throws IOException;
+
+    /**
+     * Applies a delta written by toNBTDelta(). Properties not contained in the delta are left unchanged.
+     *
+     * @param compound the NBTTagCompound.
+     * @return the mask of the {@link org.obsidianbox.frames.WidgetProperty} bits that were applied.
+     * @throws IOException
+     */
+    long fromNBTDelta(NBTTagCompound compound) throws IOException;
+
+    /**
+     * Called when this widget is serialized to the client with the compact binary format, as an alternative to toNBT().
+     *
+     * <p>Fields are written in a fixed order per widget type, without keys or type tags, using the primitives of
+     * {@link org.obsidianbox.frames.util.WireFormat}: varints, packed boolean flags, enum ids, packed colors and raw UUIDs.
+     * Implementations annotated with {@link org.obsidianbox.frames.Synced} instead write the output of their generated codec,
+     * which adds a version, a field count and a tag per field so peers of different versions can skip unknown fields. Either
+     * way the layout is fixed per widget type, and the result must decode to the same state as the NBT format, except for the
+     * children of a container: {@link org.obsidianbox.frames.WidgetProperty#CHILDREN} is not part of the binary format, as
+     * streams write each child on its own.
+     *
+     * <p>Every string (plugin name, text, url, items, format) is written through the given dictionary by
+     * {@link org.obsidianbox.frames.util.WireFormat#writeString(DataOutput, String, StringDictionary)}. Passing null writes every
+     * string as a literal.
+     *
+     * @param out the output to write to.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, may be null.
+     * @throws IOException
+     */
+    void toBinary(DataOutput out, StringDictionary strings) throws IOException;
+
+    /**
+     * Called after this widget this created for deserialization of the compact binary format.
+     *
+     * @param in the input to read from.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, null if none was used to write.
+     * @throws IOException
+     */
+    void fromBinary(DataInput in, StringDictionary strings) throws IOException;
+
+    /**
+     * Writes only the given properties of this widget with the compact binary format, preceded by the mask as a varlong.
+     * Strings are written through the given dictionary as with toBinary(). {@link org.obsidianbox.frames.WidgetProperty#CHILDREN}
+     * is dropped from the mask.
+     *
+     * @param out the output to write to.
+     * @param mask the {@link org.obsidianbox.frames.WidgetProperty} bits to write.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, may be null.
+     * @throws IOException
+     * @see #toNBTDelta(NBTTagCompound, long)
+     */
+    void toBinaryDelta(DataOutput out, long mask, StringDictionary strings) throws IOException;
+
+    /**
+     * Applies a delta written by toBinaryDelta(). Properties not contained in the delta are left unchanged.
+     *
+     * @param in the input to read from.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, null if none was used to write.
+     * @return the mask of the {@link org.obsidianbox.frames.WidgetProperty} bits that were applied.
+     * @throws IOException
+     */
+    long fromBinaryDelta(DataInput in, StringDictionary strings) throws IOException;
+
+    /**
+     * <p>Writes this widget straight into the given heap or direct buffer, starting at its position, and advances the position.
+     *
+     * <p>Unlike toBinary(), this layout is fixed-width so fields can be found and patched in place: first the raw id, then every
+     * fixed-width property (coordinates, sizes, margins, colors as packed ints, enum ids, flags) in
+     * {@link org.obsidianbox.frames.WidgetProperty} id order, then the variable-length properties (strings, lists) written with
+     * {@link org.obsidianbox.frames.util.WireFormat#putString(ByteBuffer, String)}.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to write to.
+     * @throws java.nio.BufferOverflowException if the buffer has less than getEncodedSize() bytes remaining.
+     */
+    void encode(ByteBuffer buffer);
+
+    /**
+     * Reads this widget from the given buffer, starting at its position, and advances the position.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} written by encode().
+     */
+    void decode(ByteBuffer buffer);
+
+    /**
+     * Gets the number of bytes encode() will write for the current state of this widget.
+     *
+     * @return the encoded size.
+     */
+    int getEncodedSize();
+
+    /**
+     * Gets the offset of the given property from the start of the record written by encode().
+     *
+     * @param property the {@link org.obsidianbox.frames.WidgetProperty}.
+     * @return the offset, or -1 if the property is variable-length or does not exist on this widget type.
+     */
+    int getEncodedOffset(WidgetProperty property);
+
+    /**
+     * Overwrites the given property in a record written earlier by encode(), with the current value, using absolute puts so the
+     * buffer position is unchanged.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} holding the record.
+     * @param start the index the record starts at.
+     * @param property the {@link org.obsidianbox.frames.WidgetProperty} to patch.
+     * @return true if patched, false if the property is variable-length or does not exist on this widget type.
+     */
+    boolean patch(ByteBuffer buffer, int start, WidgetProperty property);
+
+    /**
+     * Is true if any property of this widget changed since its dirty bits were last cleared.
+     *
+     * @return true if dirty, false if not.
+     */
+    boolean isDirty();
+
+    /**
+     * Is true if the given property of this widget changed since its dirty bit was last cleared.
+     *
+     * @param property the {@link org.obsidianbox.frames.WidgetProperty} to check.
+     * @return true if dirty, false if not.
+     */
+    boolean isDirty(WidgetProperty property);
+
+    /**
+     * Gets the dirty bits of this widget. Setters mark the bit of the {@link org.obsidianbox.frames.WidgetProperty} they change,
+     * but only when the value actually changes.
+     *
+     * @return the mask of dirty {@link org.obsidianbox.frames.WidgetProperty} bits.
+     */
+    long getDirtyMask();
+
+    /**
+     * Marks the given property of this widget as dirty.
+     *
+     * @param property the {@link org.obsidianbox.frames.WidgetProperty} to mark.
+     */
+    void markDirty(WidgetProperty property);
+
+    /**
+     * Marks the given properties of this widget as dirty.
+     *
+     * @param mask the {@link org.obsidianbox.frames.WidgetProperty} bits to mark.
+     */
+    void markDirty(long mask);
+
+    /**
+     * Clears the given dirty bits of this widget, usually once they have been sent to the client.
+     *
+     * @param mask the {@link org.obsidianbox.frames.WidgetProperty} bits to clear.
+     */
+    void clearDirty(long mask);
+
+    /**
+     * Gets the template this widget was instantiated from, or null if it was created on its own. The children of an instance
+     * return the template of the instance.
+     *
+     * @return the {@link org.obsidianbox.frames.IWidgetTemplate}.
+     */
+    IWidgetTemplate getTemplate();
+
     /**
      * Gets the plugin that attached this widget to the screen, or null if this screen is unattached.
      *
@@ -74,7 +273,7 @@ public interface IWidget {
     IWidget setPriority(RenderPriority priority);
 
     /**
-     * Gets the actual unscaled width of this widget, in pixels.
+     * Gets the actual unscaled width of this widget, in pixels. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the unscaled width.
      */
@@ -96,7 +295,7 @@ public interface IWidget {
     IWidget setWidth(int width);
 
     /**
-     * Gets the actual unscaled height of this widget, in pixels.
+     * Gets the actual unscaled height of this widget, in pixels. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the unscaled height.
      */
@@ -124,6 +323,15 @@ public interface IWidget {
      */
     IScreen getScreen();
 
+    /**
+     * Gets the slot holding the geometry of this widget in the {@link org.obsidianbox.frames.IGeometryStore} of its screen,
+     * the screen returned by getScreen().
+     * The slot may change when other widgets are removed from the screen.
+     *
+     * @return the slot, or -1 if unattached.
+     */
+    int getSlot();
+
     /**
      * Gets the x-coordinate of this widget. Widgets (and screens) render from the top left corner the screen. 0,0 represents the top left corner.
      *
@@ -132,7 +340,7 @@ public interface IWidget {
     int getX();
 
     /**
-     * Gets the scaled x-coordinate of this widget.
+     * Gets the scaled x-coordinate of this widget. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the scaled x-coordinate.
      */
@@ -146,7 +354,7 @@ public interface IWidget {
     int getY();
 
     /**
-     * Gets the scaled y-coordinate of this widget.
+     * Gets the scaled y-coordinate of this widget. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the scaled y-coordinate.
      */
@@ -200,7 +408,8 @@ public interface IWidget {
     IWidget setVisible(boolean enable);
 
     /**
-     * Called each tick this widget is updated. This widget is processed for isDirty() immediately afterwords.
+     * Called each tick this widget is updated. This widget is processed for isDirty() immediately afterwords, and the dirty
+     * properties are sent to the client with toNBTDelta().
      */
     void onTick();
 
@@ -414,6 +623,123 @@ public interface IWidget {
      */
     int getMaxHeight();
 
+    /**
+     * Container Layout - Set how much of the free space of a flex container this widget takes, relative to its siblings.
+     *
+     * @param grow the grow weight, 0 to keep the measured size.
+     * @return the widget.
+     */
+    IWidget setGrow(float grow);
+
+    /**
+     * Container Layout - Get how much of the free space of a flex container this widget takes.
+     *
+     * @return the grow weight.
+     */
+    float getGrow();
+
+    /**
+     * Container Layout - Set how much this widget gives up when a flex container is too small, relative to its siblings.
+     *
+     * @param shrink the shrink weight, 0 to never shrink below the measured size.
+     * @return the widget.
+     */
+    IWidget setShrink(float shrink);
+
+    /**
+     * Container Layout - Get how much this widget gives up when a flex container is too small.
+     *
+     * @return the shrink weight.
+     */
+    float getShrink();
+
+    /**
+     * Container Layout - Set the cell of a GRID container this widget is placed in.
+     *
+     * @param row the row index.
+     * @param column the column index.
+     * @return the widget.
+     */
+    IWidget setGridCell(int row, int column);
+
+    /**
+     * Container Layout - Get the row of a GRID container this widget is placed in.
+     *
+     * @return the row index.
+     */
+    int getGridRow();
+
+    /**
+     * Container Layout - Get the column of a GRID container this widget is placed in.
+     *
+     * @return the column index.
+     */
+    int getGridColumn();
+
+    /**
+     * Container Layout - Set the number of rows and columns of a GRID container this widget spans, default is 1 and 1.
+     *
+     * @param rowSpan the number of rows.
+     * @param columnSpan the number of columns.
+     * @return the widget.
+     */
+    IWidget setGridSpan(int rowSpan, int columnSpan);
+
+    /**
+     * Container Layout - Get the number of rows of a GRID container this widget spans.
+     *
+     * @return the row span.
+     */
+    int getGridRowSpan();
+
+    /**
+     * Container Layout - Get the number of columns of a GRID container this widget spans.
+     *
+     * @return the column span.
+     */
+    int getGridColumnSpan();
+
+    /**
+     * <p>Container Layout - Measures the size this widget wants within the given space, honoring its min/max sizes and fixed flag.
+     * Margins are not included.
+     *
+     * <p>The result is cached, keyed by the given space. Calling measure again with the same space returns the cached size without
+     * consulting the widget's properties, until invalidateMeasure() is called.
+     *
+     * @param availableWidth the width available to this widget, in pixels.
+     * @param availableHeight the height available to this widget, in pixels.
+     * @return the measured size, which must not be modified.
+     */
+    Dimension measure(int availableWidth, int availableHeight);
+
+    /**
+     * Container Layout - Positions and sizes this widget within its container, using the size from measure(). Containers arrange
+     * their children in turn. The bounds are written like {@link org.obsidianbox.frames.IGeometryStore#setArrangedBounds(int, int,
+     * int, int, int)}: the measure is kept, and the spatial index is updated when the layout pass ends.
+     *
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @param width the width.
+     * @param height the height.
+     * @return the widget.
+     */
+    IWidget arrange(int x, int y, int width, int height);
+
+    /**
+     * Container Layout - Discards the cached result of measure(), and invalidates the layout of the container.
+     *
+     * <p>This is called by the setters of properties that affect the size of the widget (size, min/max sizes, margins, fixed flag,
+     * visibility, text, scale, etc.). Properties that only affect the position, such as the coordinates or priority, do not call it.
+     */
+    void invalidateMeasure();
+
+    /**
+     * Container Layout - Is true if measure() holds a cached size.
+     *
+     * @return true if the measure is valid, false if not.
+     */
+    boolean isMeasureValid();
+
     /**
      * Container Layout - Save the position for later restoration.
      *
@@ -444,19 +770,28 @@ public interface IWidget {
     Anchor getAnchor();
 
     /**
-     * Gets the unscaled x-coordinate.
+     * Gets the unscaled x-coordinate. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the unscaled x-coordinate.
      */
     double getActualX();
 
     /**
-     * Gets the unscaled y-coordinate.
+     * Gets the unscaled y-coordinate. Read from the cached transform, takes O(1) time to complete.
      *
      * @return the unscaled y-coordinate.
      */
     double getActualY();
 
+    /**
+     * <p>Discards the cached absolute transform of this widget, and of every widget inside it if it is a container or screen.
+     * The transform is recomputed from the parent's transform the next time a coordinate is queried.
+     *
+     * <p>This is called when the widget moves, resizes or changes its anchor, when a scrollable parent scrolls, and when the
+     * screen is rescaled.
+     */
+    void invalidateTransform();
+
     /**
      * Gets the widgets coordinates and size in one object.
      *
@@ -0,0 +1,107 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * A pool of detached widgets of one type, reused to avoid allocating a new widget for every attach.
+ *
+ * <p>Released widgets are reset with {@link org.obsidianbox.frames.IWidget#reset()} and handed out again by
+ * {@link #acquire()}. Pools are opt-in and are obtained from {@link org.obsidianbox.frames.GuiFactory#getWidgetPool(Class)}.
+ *
+ * @param <T> the widget type.
+ */
+public interface IWidgetPool<T extends IWidget> {
+    /**
+     * Gets the widget type this pool holds.
+     *
+     * @return the widget class.
+     */
+    Class<T> getType();
+
+    /**
+     * Takes a reset widget from the pool, or creates a new one if the pool is empty.
+     *
+     * @return the widget, unattached and in its default state.
+     */
+    T acquire();
+
+    /**
+     * Resets the given widget and returns it to the pool. If the pool is full, the widget is discarded instead.
+     *
+     * @param widget the widget to release.
+     * @return true if the widget was pooled, false if it was discarded.
+     * @throws IllegalStateException if the widget is still attached to a screen or container.
+     */
+    boolean release(T widget);
+
+    /**
+     * Gets the number of widgets currently waiting in the pool.
+     *
+     * @return the pool size.
+     */
+    int size();
+
+    /**
+     * Gets the maximum number of widgets this pool holds.
+     *
+     * @return the maximum size.
+     */
+    int getMaxSize();
+
+    /**
+     * Sets the maximum number of widgets this pool holds. Pooled widgets above the new limit are discarded.
+     *
+     * @param max the maximum size, 0 to disable pooling.
+     * @return the pool.
+     */
+    IWidgetPool<T> setMaxSize(int max);
+
+    /**
+     * Discards all pooled widgets.
+     *
+     * @return the pool.
+     */
+    IWidgetPool<T> clear();
+
+    /**
+     * Gets the number of acquire() calls served by a pooled widget.
+     *
+     * @return the hit count.
+     */
+    long getHitCount();
+
+    /**
+     * Gets the number of acquire() calls that had to create a new widget.
+     *
+     * @return the miss count.
+     */
+    long getMissCount();
+
+    /**
+     * Gets the number of release() calls that discarded the widget because the pool was full.
+     *
+     * @return the discard count.
+     */
+    long getDiscardCount();
+}
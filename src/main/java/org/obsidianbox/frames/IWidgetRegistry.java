@@ -0,0 +1,78 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.util.Set;
+
+/**
+ * Tracks which plugin attached each widget, across all screens.
+ *
+ * <p>The registry is updated whenever a widget is attached to or removed from a screen, so enumerating or detaching the
+ * widgets of one plugin takes time proportional to the number of widgets that plugin owns, not to the number of screens.
+ */
+public interface IWidgetRegistry {
+    /**
+     * Gets a set of all the widgets the given plugin has attached to any screen. Modifying this set will not affect the registry.
+     *
+     * @param plugin the plugin name.
+     * @return set of the plugin's {@link org.obsidianbox.frames.IWidget}s, empty if it owns none.
+     */
+    Set<IWidget> getWidgets(String plugin);
+
+    /**
+     * Gets the number of widgets the given plugin has attached to any screen.
+     *
+     * @param plugin the plugin name.
+     * @return the widget count.
+     */
+    int getWidgetCount(String plugin);
+
+    /**
+     * Gets a set of all the screens the given plugin has attached widgets to. Modifying this set will not affect the registry.
+     *
+     * @param plugin the plugin name.
+     * @return set of the {@link org.obsidianbox.frames.IScreen}s, empty if it owns no widgets.
+     */
+    Set<IScreen> getScreens(String plugin);
+
+    /**
+     * Walks the widgets the given plugin has attached to any screen, without copying them.
+     *
+     * <p>See {@link org.obsidianbox.frames.IWidgetVisitor} for the rules on modifying screens during the walk.
+     *
+     * @param plugin the plugin name.
+     * @param visitor the {@link org.obsidianbox.frames.IWidgetVisitor} to call for each widget.
+     * @return true if the walk completed, false if the visitor terminated it.
+     */
+    boolean visitWidgets(String plugin, IWidgetVisitor visitor);
+
+    /**
+     * Removes every widget the given plugin has attached, from every screen. The removals on each affected screen are applied
+     * as a single batch, so each screen performs one layout and sends one update.
+     *
+     * @param plugin the plugin name.
+     * @return the number of widgets removed.
+     */
+    int detachWidgets(String plugin);
+}
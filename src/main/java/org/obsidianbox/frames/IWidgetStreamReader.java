@@ -0,0 +1,75 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.obsidianbox.frames.util.StringDictionary;
+
+/**
+ * <p>Reads screens written by an {@link org.obsidianbox.frames.IWidgetStreamWriter}, one widget at a time.
+ *
+ * <p>Each call to {@link #read()} decodes the next complete frame, creates the widget from the
+ * {@link org.obsidianbox.frames.WidgetType} id at the start of the frame, decodes its state and attaches it to its screen or
+ * container right away, so the first widgets can be laid out and rendered while the rest of the screen is still arriving. Only the frame being
+ * decoded is buffered, so memory use is bounded by the largest widget rather than by the screen.
+ */
+public interface IWidgetStreamReader extends Closeable {
+    /**
+     * Reads the next widget from the input and attaches it to its parent.
+     *
+     * <p>If the input is non-blocking and the next frame has not fully arrived, null is returned and the partial frame is kept
+     * for the next call.
+     *
+     * @return the decoded {@link org.obsidianbox.frames.IWidget}, or null if no complete frame is available.
+     * @throws IOException if the input fails, or the frame length is negative or larger than
+     *             {@link org.obsidianbox.frames.IWidgetStreamWriter#MAX_FRAME_BYTES}, or the frame body does not decode to
+     *             exactly that length.
+     */
+    IWidget read() throws IOException;
+
+    /**
+     * Gets the screen currently being read, or null if none has started.
+     *
+     * @return the {@link org.obsidianbox.frames.IScreen}.
+     */
+    IScreen getScreen();
+
+    /**
+     * Is true if the end frame of the current screen has been read.
+     *
+     * @return true if complete, false if not.
+     */
+    boolean isComplete();
+
+    /**
+     * Gets the dictionary the strings of widgets (plugin names, texts, urls, combo box items and formats) are read through:
+     * every frame body is read by {@link org.obsidianbox.frames.IWidget#fromBinary(java.io.DataInput, StringDictionary)} or
+     * fromBinaryDelta() with this dictionary. It lives as long as the reader, so a reader should be kept for the whole connection.
+     *
+     * @return the {@link org.obsidianbox.frames.util.StringDictionary}.
+     */
+    StringDictionary getStringDictionary();
+}
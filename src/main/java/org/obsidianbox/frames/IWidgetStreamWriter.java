@@ -0,0 +1,123 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.obsidianbox.frames.util.StringDictionary;
+
+/**
+ * <p>Writes screens to an output one widget at a time, without building the whole serialized screen in memory.
+ *
+ * <p>Each widget is written as its own frame, starting with a varint frame length and a varint frame kind:
+ * <ul>
+ * <li>{@link #FRAME_WIDGET}: the varint {@link org.obsidianbox.frames.WidgetType} id of the widget, the raw id of the screen or
+ * container holding it, then the widget as written by toBinary() with getStringDictionary(). The type id comes first so the reader can create the widget
+ * with {@link org.obsidianbox.frames.GuiFactory#createWidget(WidgetType)} before decoding its state into it.</li>
+ * <li>{@link #FRAME_TEMPLATE}: the raw template id, the varint type id of the prototype, then the prototype as written by
+ * toBinary() with getStringDictionary(). Children of a container prototype follow as widget frames whose parent id is the template id.</li>
+ * <li>{@link #FRAME_INSTANCE}: the raw id of the parent, the raw template id, then one entry for each widget of the instance,
+ * in the depth-first order of {@link org.obsidianbox.frames.IWidgetTemplate#instantiate(java.util.UUID[])}: its raw id, then
+ * its overrides as written by toBinaryDelta() with getStringDictionary(). The number of entries is not written; it is
+ * getWidgetCount() of the template, which the reader knows from the template frame.</li>
+ * <li>{@link #FRAME_END}: nothing else; closes the current screen.</li>
+ * </ul>
+ *
+ * <p>A screen starts with the widget frame of the screen itself, whose parent id is its own id. A frame never holds the
+ * children of its widget: toBinary() and toBinaryDelta() leave out {@link org.obsidianbox.frames.WidgetProperty#CHILDREN},
+ * and each child is written as a frame of its own after the widget holding it. A reader can thus materialize each widget as
+ * soon as its frame arrives, and only one frame is buffered at a time.
+ *
+ * <p>The frame length counts the bytes after it, frame kind included, and is at most {@link #MAX_FRAME_BYTES}. A writer
+ * fails with an {@link java.io.IOException} instead of writing a larger frame, and a reader fails with one when it reads a
+ * larger length, before buffering the frame.
+ *
+ * <p>The first time a template is used on the stream, its template frame is written before the first instance frame. An
+ * instance is written as one instance frame only while its containers hold the same children as the prototype. Children
+ * added to an instance since follow it as widget frames. If a child of the prototype was removed or moved, the instance is
+ * written as widget frames like any widget without a template.
+ */
+public interface IWidgetStreamWriter extends Closeable {
+    /**
+     * Frame kind closing the current screen.
+     */
+    int FRAME_END = 0;
+    /**
+     * Frame kind of a widget.
+     */
+    int FRAME_WIDGET = 1;
+    /**
+     * Frame kind of a template prototype.
+     */
+    int FRAME_TEMPLATE = 2;
+    /**
+     * Frame kind of a widget instantiated from a template.
+     */
+    int FRAME_INSTANCE = 3;
+    /**
+     * The largest frame length, in bytes, a writer writes and a reader accepts: 2 MiB, the largest packet the game accepts.
+     */
+    int MAX_FRAME_BYTES = 1 << 21;
+
+    /**
+     * Writes the given screen, its widgets and their children, depth-first, followed by the end frame of the screen.
+     *
+     * @param screen the {@link org.obsidianbox.frames.IScreen} to write.
+     * @throws IOException if the output fails, or a frame would be larger than MAX_FRAME_BYTES.
+     */
+    void writeScreen(IScreen screen) throws IOException;
+
+    /**
+     * Writes a single widget, and its children if it is a container or screen, under the given parent.
+     *
+     * @param parent the {@link org.obsidianbox.frames.IWidget} holding the widget, a screen or container.
+     * @param widget the {@link org.obsidianbox.frames.IWidget} to write.
+     * @throws IOException if the output fails, or a frame would be larger than MAX_FRAME_BYTES.
+     */
+    void writeWidget(IWidget parent, IWidget widget) throws IOException;
+
+    /**
+     * Gets the number of frames written so far.
+     *
+     * @return the frame count.
+     */
+    long getFrameCount();
+
+    /**
+     * Writes any buffered frame to the output.
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException;
+
+    /**
+     * Gets the dictionary the strings of widgets (plugin names, texts, urls, combo box items and formats) are written through:
+     * every frame body is written by {@link org.obsidianbox.frames.IWidget#toBinary(java.io.DataOutput, StringDictionary)} or
+     * toBinaryDelta() with this dictionary. It lives as long as the writer, so a writer should be kept for the whole connection.
+     *
+     * @return the {@link org.obsidianbox.frames.util.StringDictionary}.
+     */
+    StringDictionary getStringDictionary();
+}
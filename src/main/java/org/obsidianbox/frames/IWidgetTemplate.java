@@ -0,0 +1,94 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.util.UUID;
+
+/**
+ * <p>A fully configured widget, or container subtree, used as the prototype for many nearly identical widgets.
+ *
+ * <p>Instances created by {@link #instantiate()} get a fresh id and read every property they have not set through to the
+ * prototype, so unchanged state is held once. The properties an instance sets itself are its overrides, tracked with the
+ * same {@link org.obsidianbox.frames.WidgetProperty} bits as dirty tracking. If the prototype is a container, each child of
+ * an instance is itself an instance of the matching child of the prototype, with its own id and its own overrides.
+ *
+ * <p>On the wire, the template is sent once per connection, and each instance is sent as the template id followed by the id
+ * and override delta of each of its widgets, see {@link org.obsidianbox.frames.IWidgetStreamWriter#FRAME_INSTANCE}. The
+ * client builds its instances with {@link #instantiate(java.util.UUID[])} from the received ids, then applies the deltas,
+ * sharing the unchanged state of its copy of the prototype.
+ *
+ * <p>The prototype is frozen when the template is created; changing it afterwards throws an {@link java.lang.IllegalStateException}.
+ */
+public interface IWidgetTemplate {
+    /**
+     * Gets the id identifying this template on the wire.
+     *
+     * @return the unique id.
+     */
+    UUID getId();
+
+    /**
+     * Gets the prototype of this template.
+     *
+     * @return the frozen {@link org.obsidianbox.frames.IWidget}.
+     */
+    IWidget getPrototype();
+
+    /**
+     * Gets the number of widgets in the prototype: 1, plus all the children below it if it is a container.
+     *
+     * @return the widget count.
+     */
+    int getWidgetCount();
+
+    /**
+     * Creates a new, unattached instance of the prototype with no overrides. The instance and each of its children get a
+     * fresh random id. If the prototype is a container, its children are instantiated as well.
+     *
+     * @return the new {@link org.obsidianbox.frames.IWidget}.
+     */
+    IWidget instantiate();
+
+    /**
+     * Creates a new, unattached instance of the prototype with no overrides and the given ids, as a reader does for an
+     * instance frame.
+     *
+     * <p>The ids are assigned depth-first: the first is the id of the instance, then each child of a container is followed by
+     * the ids of its own children before its next sibling, in the order the prototype holds them.
+     *
+     * @param ids the ids of the instance and its children, getWidgetCount() of them.
+     * @return the new {@link org.obsidianbox.frames.IWidget}.
+     * @throws IllegalArgumentException if the number of ids is not getWidgetCount().
+     */
+    IWidget instantiate(UUID[] ids);
+
+    /**
+     * Gets the properties the given instance has set itself rather than reading them from the prototype.
+     *
+     * @param instance the {@link org.obsidianbox.frames.IWidget} created by instantiate(), or one of its children.
+     * @return the mask of overridden {@link org.obsidianbox.frames.WidgetProperty} bits.
+     * @throws IllegalArgumentException if the widget is not an instance of this template.
+     */
+    long getOverrideMask(IWidget instance);
+}
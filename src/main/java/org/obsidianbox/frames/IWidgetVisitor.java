@@ -0,0 +1,43 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * Callback used to walk the widgets of an {@link org.obsidianbox.frames.IScreen} or {@link org.obsidianbox.frames.IContainer}
+ * without copying them.
+ *
+ * <p>Walks visit the live widgets, so the tree must not be structurally modified (widgets attached, removed, added or removed
+ * as children) from within {@link #visit(IWidget)}. Doing so causes the walk to throw a
+ * {@link java.util.ConcurrentModificationException}. Changing the properties of a visited widget (position, size, visibility,
+ * etc.) is allowed. To restructure the tree, collect the widgets to change first and modify them after the walk returns.
+ */
+public interface IWidgetVisitor {
+    /**
+     * Called for each widget of the walk.
+     *
+     * @param widget the {@link org.obsidianbox.frames.IWidget} being visited.
+     * @return the {@link org.obsidianbox.frames.VisitResult} to steer the walk with.
+     */
+    VisitResult visit(IWidget widget);
+}
@@ -0,0 +1,56 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Marks a widget implementation whose state fields are serialized by a generated codec.
+ *
+ * <p>The frames annotation processor generates a <code>&lt;ClassName&gt;Codec</code> class in the same package, with static
+ * <code>write(widget, DataOutput, StringDictionary)</code> and <code>read(widget, DataInput, GuiFactory, StringDictionary)</code>
+ * methods that read and write the {@link org.obsidianbox.frames.SyncField} fields directly, without reflection. Overloads
+ * without the dictionary send strings as literals. Implementations call them from
+ * {@link org.obsidianbox.frames.IWidget#toBinary(java.io.DataOutput, org.obsidianbox.frames.util.StringDictionary)} and
+ * {@link org.obsidianbox.frames.IWidget#fromBinary(java.io.DataInput, org.obsidianbox.frames.util.StringDictionary)} in place of
+ * the untagged field order; the codec output, a version, a field count
+ * and a tag before each field, is then the entire binary state of the widget.
+ *
+ * <p>The annotations are kept in class files so the processor also finds fields of superclasses compiled separately.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Synced {
+    /**
+     * The version of the serialized state, written at the start of the encoded widget. Raise it when fields are added or removed.
+     *
+     * @return the version.
+     */
+    int version() default 1;
+}
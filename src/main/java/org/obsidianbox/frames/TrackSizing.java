@@ -0,0 +1,71 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+/**
+ * How a row or column of a {@link org.obsidianbox.frames.ContainerType#GRID} container is sized.
+ */
+public enum TrackSizing {
+    /**
+     * The track is exactly its size, in pixels.
+     */
+    FIXED(0),
+    /**
+     * The track is as large as the largest widget placed in it, including margins.
+     */
+    AUTO(1),
+    /**
+     * The track takes a share of the space left after fixed and auto tracks, proportional to its weight.
+     */
+    WEIGHTED(2);
+
+    private final int id;
+    private TrackSizing(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the track sizing ID.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the track sizing from an ID.
+     *
+     * @param id the id to look up the track sizing with.
+     * @return the track sizing, or null if the id is unknown.
+     */
+    public static TrackSizing getTrackSizingFromId(int id) {
+        for (TrackSizing sizing : values()) {
+            if (sizing.getId() == id) {
+                return sizing;
+            }
+        }
+        return null;
+    }
+}
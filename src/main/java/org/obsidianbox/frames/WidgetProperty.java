@@ -0,0 +1,309 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.util.HashMap;
+
+/**
+ * The synchronized properties of a widget, used for dirty tracking and delta serialization.
+ *
+ * <p>Each property owns one bit of a long mask, see {@link #getMask()}. Properties that only exist on some widget
+ * types are simply never marked dirty on the others.
+ */
+public enum WidgetProperty {
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getX()}
+     */
+    X(0),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getY()}
+     */
+    Y(1),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getWidth()}
+     */
+    WIDTH(2),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getHeight()}
+     */
+    HEIGHT(3),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#isVisible()}
+     */
+    VISIBLE(4),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getPriority()}
+     */
+    PRIORITY(5),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getAnchor()}
+     */
+    ANCHOR(6),
+    /**
+     * All four margins of a widget.
+     */
+    MARGIN(7),
+    /**
+     * The minimum and maximum width and height of a widget.
+     */
+    SIZE_LIMITS(8),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#isFixed()}
+     */
+    FIXED(9),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getTooltip()}
+     */
+    TOOLTIP(10),
+    /**
+     * {@link org.obsidianbox.frames.IWidget#getContainer()}
+     */
+    CONTAINER(11),
+    /**
+     * The text of a label, button or text box.
+     */
+    TEXT(12),
+    /**
+     * The text color of a label or button.
+     */
+    TEXT_COLOR(13),
+    /**
+     * The alignment of a label, button or container.
+     */
+    ALIGN(14),
+    /**
+     * {@link org.obsidianbox.frames.ILabel#getScale()}
+     */
+    SCALE(15),
+    /**
+     * {@link org.obsidianbox.frames.ILabel#hasShadow()}
+     */
+    SHADOW(16),
+    /**
+     * The auto sizing of a label, button or container.
+     */
+    AUTO(17),
+    /**
+     * {@link org.obsidianbox.frames.IControl#isEnabled()}
+     */
+    ENABLED(18),
+    /**
+     * {@link org.obsidianbox.frames.IControl#isFocus()}
+     */
+    FOCUS(19),
+    /**
+     * {@link org.obsidianbox.frames.IControl#getColor()}
+     */
+    COLOR(20),
+    /**
+     * {@link org.obsidianbox.frames.IControl#getDisabledColor()}
+     */
+    DISABLED_COLOR(21),
+    /**
+     * {@link org.obsidianbox.frames.IButton#getHoverColor()}
+     */
+    HOVER_COLOR(22),
+    /**
+     * {@link org.obsidianbox.frames.IButton#getDisabledText()}
+     */
+    DISABLED_TEXT(23),
+    /**
+     * {@link org.obsidianbox.frames.IGradient#getTopColor()}
+     */
+    TOP_COLOR(24),
+    /**
+     * {@link org.obsidianbox.frames.IGradient#getBottomColor()}
+     */
+    BOTTOM_COLOR(25),
+    /**
+     * {@link org.obsidianbox.frames.IGradient#getOrientation()}
+     */
+    ORIENTATION(26),
+    /**
+     * {@link org.obsidianbox.frames.ITexture#getUrl()}
+     */
+    URL(27),
+    /**
+     * The top and left offsets of a texture.
+     */
+    TEXTURE_OFFSET(28),
+    /**
+     * {@link org.obsidianbox.frames.ITexture#isDrawingAlphaChannel()}
+     */
+    DRAW_ALPHA(29),
+    /**
+     * The raw data of a bitmap.
+     */
+    BITMAP(30),
+    /**
+     * {@link org.obsidianbox.frames.ICheckBox#isChecked()}
+     */
+    CHECKED(31),
+    /**
+     * {@link org.obsidianbox.frames.IRadioButton#isSelected()}
+     */
+    SELECTED(32),
+    /**
+     * {@link org.obsidianbox.frames.IRadioButton#getGroup()}
+     */
+    GROUP(33),
+    /**
+     * {@link org.obsidianbox.frames.IComboBox#getItems()}
+     */
+    ITEMS(34),
+    /**
+     * {@link org.obsidianbox.frames.IComboBox#getSelectedRow()}
+     */
+    SELECTION(35),
+    /**
+     * {@link org.obsidianbox.frames.IComboBox#getFormat()}
+     */
+    FORMAT(36),
+    /**
+     * {@link org.obsidianbox.frames.IComboBox#isOpen()}
+     */
+    OPEN(37),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getCursorPosition()}
+     */
+    CURSOR(38),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getMaximumCharacters()}
+     */
+    MAX_CHARACTERS(39),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getMaximumLines()}
+     */
+    MAX_LINES(40),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getFieldColor()}
+     */
+    FIELD_COLOR(41),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getBorderColor()}
+     */
+    BORDER_COLOR(42),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getTabIndex()}
+     */
+    TAB_INDEX(43),
+    /**
+     * {@link org.obsidianbox.frames.ITextBox#getPlaceholder()}
+     */
+    PLACEHOLDER(44),
+    /**
+     * {@link org.obsidianbox.frames.IMaskedTextBox#getMaskCharacter()}
+     */
+    MASK_CHARACTER(45),
+    /**
+     * {@link org.obsidianbox.frames.IContainer#getLayout()}
+     */
+    LAYOUT(46),
+    /**
+     * {@link org.obsidianbox.frames.IContainer#getReverse()}
+     */
+    REVERSE(47),
+    /**
+     * The children of a container.
+     */
+    CHILDREN(48),
+    /**
+     * The scroll positions of a scrollable.
+     */
+    SCROLL_POSITION(49),
+    /**
+     * The scroll bar policies of a scrollable.
+     */
+    SCROLL_BAR_POLICY(50),
+    /**
+     * {@link org.obsidianbox.frames.IScrollable#getBackgroundColor()}
+     */
+    BACKGROUND_COLOR(51),
+    /**
+     * The grid cell and span of a widget.
+     */
+    GRID_CELL(52),
+    /**
+     * The grid rows and columns of a container.
+     */
+    GRID_TRACKS(53),
+    /**
+     * The grow and shrink weights of a widget, and the flex flag of a container.
+     */
+    FLEX(54);
+
+    private static final HashMap<Integer, WidgetProperty> lookupId = new HashMap<>();
+    static {
+        for (WidgetProperty p : values()) {
+            lookupId.put(p.getId(), p);
+        }
+    }
+
+    private final int id;
+    private WidgetProperty(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the id of the property. Ids are part of the wire format and never change.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the dirty bit of the property.
+     *
+     * @return the mask with only this property's bit set.
+     */
+    public long getMask() {
+        return 1L << id;
+    }
+
+    /**
+     * Gets the property based on the ID.
+     *
+     * @param id the property id to search with.
+     * @return the property found.
+     */
+    public static WidgetProperty getPropertyFromId(int id) {
+        return lookupId.get(id);
+    }
+
+    /**
+     * Combines the dirty bits of the given properties.
+     *
+     * @param properties the properties to combine.
+     * @return the combined mask.
+     */
+    public static long toMask(WidgetProperty... properties) {
+        long mask = 0;
+        for (WidgetProperty p : properties) {
+            mask |= p.getMask();
+        }
+        return mask;
+    }
+}
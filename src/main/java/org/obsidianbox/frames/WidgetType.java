@@ -0,0 +1,88 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames;
+
+import java.util.HashMap;
+
+/**
+ * The concrete kind of a widget, sent in front of its binary state so the receiving side knows which widget to create
+ * before decoding it.
+ */
+public enum WidgetType {
+    SCREEN(1, IScreen.class),
+    SCROLL_AREA(2, IScrollArea.class),
+    CONTAINER(3, IContainer.class),
+    VIRTUAL_CONTAINER(4, IVirtualContainer.class),
+    LABEL(5, ILabel.class),
+    BUTTON(6, IButton.class),
+    CHECK_BOX(7, ICheckBox.class),
+    RADIO_BUTTON(8, IRadioButton.class),
+    COMBO_BOX(9, IComboBox.class),
+    TEXT_BOX(10, ITextBox.class),
+    MASKED_TEXT_BOX(11, IMaskedTextBox.class),
+    TEXTURE(12, ITexture.class),
+    GRADIENT(13, IGradient.class);
+
+    private static final HashMap<Integer, WidgetType> lookupId = new HashMap<>();
+    static {
+        for (WidgetType t : values()) {
+            lookupId.put(t.getId(), t);
+        }
+    }
+
+    private final int id;
+    private final Class<? extends IWidget> widgetClass;
+    private WidgetType(int id, Class<? extends IWidget> widgetClass) {
+        this.id = id;
+        this.widgetClass = widgetClass;
+    }
+
+    /**
+     * Gets the id of the widget type. Ids are part of the wire format and never change; 0 is never used.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the widget interface of this type.
+     *
+     * @return the widget class.
+     */
+    public Class<? extends IWidget> getWidgetClass() {
+        return widgetClass;
+    }
+
+    /**
+     * Gets the widget type based on the ID.
+     *
+     * @param id the widget type id to search with.
+     * @return the widget type found, or null if the id is unknown.
+     */
+    public static WidgetType getWidgetTypeFromId(int id) {
+        return lookupId.get(id);
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A per-connection dictionary replacing repeated strings, such as plugin names, texture urls, combo box items and formats,
+ * with small integer ids on the wire.
+ *
+ * <p>The first time a string is written it is sent in full together with the id it is assigned; afterwards only the id is sent.
+ * The writing side holds at most getMaxSize() entries and evicts the least recently used one when full, reusing its id. Since
+ * every definition carries its id, the reading side simply stores each definition at that id and never needs to evict on its own.
+ * Strings longer than getMaxLength() are always sent in full and never stored.
+ *
+ * <p>Widgets write their strings through the dictionary with {@link org.obsidianbox.frames.IWidget#toBinary(DataOutput, StringDictionary)},
+ * which {@link org.obsidianbox.frames.IWidgetStreamWriter} calls with its own dictionary. Payloads of
+ * {@link org.obsidianbox.frames.IBroadcastEncoder} are shared by all connections and never go through a dictionary.
+ *
+ * <p>Each direction of a connection uses its own dictionary, created with the same maximum size on both ends. Strings read
+ * through the dictionary are shared instances, so repeated strings are only held once in memory, and intern() finds the held
+ * instance on either side. The writing and reading sides keep their own statistics. A dictionary is not thread-safe.
+ *
+ * <p>Each string is written as a varint header h, followed by a string written by {@link WireFormat#writeString(DataOutput, String)}
+ * where noted: 0 is null, 1 is a literal string that is not stored, 2 + 2 * id defines the following string at id, and 3 + 2 * id
+ * refers to the string defined at id.
+ */
+public final class StringDictionary {
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+
+    private final int maxSize;
+    private final int maxLength;
+    private final LinkedHashMap<String, Integer> ids;
+    private final String[] written;
+    private final HashMap<String, Integer> readIds;
+    private final String[] read;
+    private int nextId;
+    private long hits;
+    private long misses;
+    private long readHits;
+    private long readMisses;
+
+    /**
+     * Creates a dictionary.
+     *
+     * @param maxSize the maximum number of strings held, the same on both ends of the connection.
+     * @param maxLength the maximum length of a string to be stored.
+     */
+    public StringDictionary(int maxSize, int maxLength) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Dictionary size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.maxLength = maxLength;
+        this.ids = new LinkedHashMap<>(16, 0.75f, true);
+        this.written = new String[maxSize];
+        this.readIds = new HashMap<>();
+        this.read = new String[maxSize];
+    }
+
+    /**
+     * Writes the given string, or its id if it was written before.
+     *
+     * @param out the output to write to.
+     * @param value the string, may be null.
+     * @throws IOException
+     */
+    public void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            WireFormat.writeVarInt(out, NULL);
+            return;
+        }
+        if (value.length() > maxLength) {
+            WireFormat.writeVarInt(out, LITERAL);
+            WireFormat.writeString(out, value);
+            return;
+        }
+        final Integer known = ids.get(value);
+        if (known != null) {
+            hits++;
+            WireFormat.writeVarInt(out, 3 + 2 * known);
+            return;
+        }
+        misses++;
+        final int id;
+        if (nextId < maxSize) {
+            id = nextId++;
+        } else {
+            final Iterator<Map.Entry<String, Integer>> eldest = ids.entrySet().iterator();
+            id = eldest.next().getValue();
+            eldest.remove();
+        }
+        ids.put(value, id);
+        written[id] = value;
+        WireFormat.writeVarInt(out, 2 + 2 * id);
+        WireFormat.writeString(out, value);
+    }
+
+    /**
+     * Reads a string written by writeString() on the other end of the connection.
+     *
+     * @param in the input to read from.
+     * @return the string, may be null.
+     * @throws IOException if the string refers to an id that was never defined, or defines an id as null.
+     */
+    public String readString(DataInput in) throws IOException {
+        final int header = WireFormat.readVarInt(in);
+        if (header == NULL) {
+            return null;
+        }
+        if (header == LITERAL) {
+            return WireFormat.readString(in);
+        }
+        final int id = (header - 2) >>> 1;
+        if (id >= maxSize) {
+            throw new IOException("String id " + id + " exceeds dictionary size " + maxSize);
+        }
+        if ((header & 1) == 0) {
+            final String value = WireFormat.readString(in);
+            if (value == null) {
+                throw new IOException("String id " + id + " cannot be defined as null");
+            }
+            final String previous = read[id];
+            if (previous != null) {
+                readIds.remove(previous);
+            }
+            read[id] = value;
+            readIds.put(value, id);
+            readMisses++;
+            return value;
+        }
+        final String value = read[id];
+        if (value == null) {
+            throw new IOException("String id " + id + " was never defined");
+        }
+        readHits++;
+        return value;
+    }
+
+    /**
+     * Gets the instance held by this dictionary that equals the given string, so callers can share it instead of keeping
+     * their own copy. Strings written and strings read are both looked up. Does not add the string, but counts as a use of
+     * a written string for eviction.
+     *
+     * @param value the string.
+     * @return the held instance, or the given string if none is held.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        Integer id = ids.get(value);
+        if (id != null) {
+            return written[id];
+        }
+        id = readIds.get(value);
+        if (id != null) {
+            return read[id];
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of strings held on the writing side.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the maximum number of strings held.
+     *
+     * @return the maximum size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the maximum length of a string to be stored.
+     *
+     * @return the maximum length.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Gets the number of strings held on the reading side.
+     *
+     * @return the size.
+     */
+    public int getReadSize() {
+        return readIds.size();
+    }
+
+    /**
+     * Gets the number of strings sent as an id.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of strings sent in full with a new id.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of strings received as an id.
+     *
+     * @return the hit count of the reading side.
+     */
+    public long getReadHitCount() {
+        return readHits;
+    }
+
+    /**
+     * Gets the number of strings received in full with a new id.
+     *
+     * @return the miss count of the reading side.
+     */
+    public long getReadMissCount() {
+        return readMisses;
+    }
+}
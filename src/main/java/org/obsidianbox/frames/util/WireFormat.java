@@ -0,0 +1,488 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+import org.obsidianbox.frames.GuiFactory;
+
+/**
+ * Primitives of the compact binary widget format, shared by both ends of the connection.
+ *
+ * <p>Integers are written as varints (7 bits per byte, low bits first); signed values are zigzag encoded first so small
+ * negative coordinates stay short. Booleans are packed into a flags varint, enums are written by id, colors as one packed
+ * ARGB int and UUIDs as their raw 128 bits.
+ */
+public final class WireFormat {
+    /**
+     * Field wire type of a varint.
+     */
+    public static final int WIRE_VARINT = 0;
+    /**
+     * Field wire type of 8 raw bytes.
+     */
+    public static final int WIRE_FIXED64 = 1;
+    /**
+     * Field wire type of a varint n followed by n - 1 bytes, or nothing when n is 0.
+     */
+    public static final int WIRE_LENGTH = 2;
+    /**
+     * Field wire type of a varint n followed by n - 1 strings written by
+     * {@link #writeString(DataOutput, String, StringDictionary)}, or nothing when n is 0.
+     */
+    public static final int WIRE_STRING_LIST = 3;
+    /**
+     * Field wire type of a string written by {@link #writeString(DataOutput, String, StringDictionary)}.
+     */
+    public static final int WIRE_STRING = 4;
+    /**
+     * Field wire type of 4 raw bytes.
+     */
+    public static final int WIRE_FIXED32 = 5;
+    /**
+     * The maximum number of UTF-8 bytes of a string, so a corrupt or hostile length cannot force a huge allocation.
+     */
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+    /**
+     * The maximum number of bytes of a WIRE_LENGTH field.
+     */
+    public static final int MAX_FIELD_BYTES = 1 << 20;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private WireFormat() {
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param out the output to write to.
+     * @param value the value, treated as unsigned.
+     * @throws IOException
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param in the input to read from.
+     * @return the value.
+     * @throws IOException if the varint is longer than 5 bytes.
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too long");
+    }
+
+    /**
+     * Writes an unsigned varlong.
+     *
+     * @param out the output to write to.
+     * @param value the value, treated as unsigned.
+     * @throws IOException
+     */
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned varlong.
+     *
+     * @param in the input to read from.
+     * @return the value.
+     * @throws IOException if the varlong is longer than 10 bytes.
+     */
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarLong is too long");
+    }
+
+    /**
+     * Writes a signed int as a zigzag encoded varint.
+     *
+     * @param out the output to write to.
+     * @param value the value.
+     * @throws IOException
+     */
+    public static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads a zigzag encoded varint.
+     *
+     * @param in the input to read from.
+     * @return the value.
+     * @throws IOException
+     */
+    public static int readSignedVarInt(DataInput in) throws IOException {
+        final int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Sets or clears one bit of a flags value, to be written with writeVarInt().
+     *
+     * @param flags the flags so far.
+     * @param bit the bit index, 0 to 31.
+     * @param value the boolean to store.
+     * @return the updated flags.
+     */
+    public static int setFlag(int flags, int bit, boolean value) {
+        return value ? flags | (1 << bit) : flags & ~(1 << bit);
+    }
+
+    /**
+     * Gets one bit of a flags value read with readVarInt().
+     *
+     * @param flags the flags.
+     * @param bit the bit index, 0 to 31.
+     * @return the stored boolean.
+     */
+    public static boolean getFlag(int flags, int bit) {
+        return (flags & (1 << bit)) != 0;
+    }
+
+    /**
+     * Writes a string as a varint byte length followed by its UTF-8 bytes. Null is written as length 0, the empty string
+     * as length 1 and so on.
+     *
+     * @param out the output to write to.
+     * @param value the string, may be null.
+     * @throws IOException if the string is longer than MAX_STRING_BYTES bytes.
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        final byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("String of " + bytes.length + " bytes exceeds " + MAX_STRING_BYTES);
+        }
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString().
+     *
+     * @param in the input to read from.
+     * @return the string, may be null.
+     * @throws IOException if the length is negative or exceeds MAX_STRING_BYTES.
+     */
+    public static String readString(DataInput in) throws IOException {
+        final int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length - 1 > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length " + (length - 1));
+        }
+        final byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Writes a string through the given dictionary, or as writeString(DataOutput, String) does if there is none. Both ends
+     * must agree on whether a dictionary is used.
+     *
+     * @param out the output to write to.
+     * @param value the string, may be null.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, or null to write a literal.
+     * @throws IOException
+     */
+    public static void writeString(DataOutput out, String value, StringDictionary strings) throws IOException {
+        if (strings == null) {
+            writeString(out, value);
+        } else {
+            strings.writeString(out, value);
+        }
+    }
+
+    /**
+     * Reads a string written by writeString(DataOutput, String, StringDictionary).
+     *
+     * @param in the input to read from.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, or null if none was used.
+     * @return the string, may be null.
+     * @throws IOException
+     */
+    public static String readString(DataInput in, StringDictionary strings) throws IOException {
+        return strings == null ? readString(in) : strings.readString(in);
+    }
+
+    /**
+     * Creates the tag written in front of a field, combining its id and wire type.
+     *
+     * @param id the field id.
+     * @param wireType the wire type, one of the WIRE_ constants.
+     * @return the tag, to be written with writeVarInt().
+     */
+    public static int tag(int id, int wireType) {
+        return id << 3 | wireType;
+    }
+
+    /**
+     * Skips the payload of a field the reader does not know, written without a dictionary.
+     *
+     * @param in the input to read from.
+     * @param tag the tag of the field.
+     * @throws IOException if the wire type is unknown.
+     */
+    public static void skipField(DataInput in, int tag) throws IOException {
+        skipField(in, tag, null);
+    }
+
+    /**
+     * Skips the payload of a field the reader does not know. Strings of skipped fields are still read through the dictionary,
+     * so the definitions they carry are kept for later references.
+     *
+     * @param in the input to read from.
+     * @param tag the tag of the field.
+     * @param strings the {@link org.obsidianbox.frames.util.StringDictionary} of the connection, or null if none was used.
+     * @throws IOException if the wire type is unknown, or the length of a WIRE_LENGTH field is negative or exceeds MAX_FIELD_BYTES.
+     */
+    public static void skipField(DataInput in, int tag, StringDictionary strings) throws IOException {
+        switch (tag & 7) {
+            case WIRE_VARINT:
+                readVarLong(in);
+                break;
+            case WIRE_FIXED64:
+                in.readLong();
+                break;
+            case WIRE_LENGTH:
+                final int length = readVarInt(in);
+                if (length < 0 || length - 1 > MAX_FIELD_BYTES) {
+                    throw new IOException("Invalid length " + (length - 1) + " for field " + (tag >>> 3));
+                }
+                for (int remaining = length - 1; remaining > 0; ) {
+                    final int skipped = in.skipBytes(remaining);
+                    if (skipped > 0) {
+                        remaining -= skipped;
+                    } else {
+                        in.readByte();
+                        remaining--;
+                    }
+                }
+                break;
+            case WIRE_STRING_LIST:
+                final int count = readVarInt(in);
+                for (int i = 1; i < count; i++) {
+                    readString(in, strings);
+                }
+                break;
+            case WIRE_STRING:
+                readString(in, strings);
+                break;
+            case WIRE_FIXED32:
+                in.readInt();
+                break;
+            default:
+                throw new IOException("Unknown wire type " + (tag & 7) + " for field " + (tag >>> 3));
+        }
+    }
+
+    /**
+     * Writes a UUID as its raw 128 bits.
+     *
+     * @param out the output to write to.
+     * @param id the UUID.
+     * @throws IOException
+     */
+    public static void writeUUID(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads a UUID written by writeUUID().
+     *
+     * @param in the input to read from.
+     * @return the UUID.
+     * @throws IOException
+     */
+    public static UUID readUUID(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Packs a color into one ARGB int.
+     *
+     * @param color the {@link org.obsidianbox.frames.util.Color}.
+     * @return the packed color.
+     */
+    public static int packColor(Color color) {
+        return (color.getA() & 0xFF) << 24 | (color.getR() & 0xFF) << 16 | (color.getG() & 0xFF) << 8 | (color.getB() & 0xFF);
+    }
+
+    /**
+     * Unpacks an ARGB int created by packColor().
+     *
+     * @param argb the packed color.
+     * @param factory the {@link org.obsidianbox.frames.GuiFactory} to create the color with.
+     * @return the {@link org.obsidianbox.frames.util.Color}.
+     */
+    public static Color unpackColor(int argb, GuiFactory factory) {
+        return factory.createColor((argb >>> 16) & 0xFF, (argb >>> 8) & 0xFF, argb & 0xFF, argb >>> 24);
+    }
+
+    /**
+     * Puts a string at the buffer position as a 4 byte byte length followed by its UTF-8 bytes, encoding the chars straight
+     * into the buffer without intermediate objects. Null is written as length -1. Unpaired surrogates are written as '?', as
+     * writeString() does.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to write to.
+     * @param value the string, may be null.
+     * @throws java.nio.BufferOverflowException if the buffer runs out of space, with the position left unchanged.
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        final int start = buffer.position();
+        try {
+            if (value == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            if (buffer.remaining() < 4) {
+                throw new BufferOverflowException();
+            }
+            buffer.position(start + 4);
+            final int length = value.length();
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    buffer.put((byte) (0xC0 | c >> 6));
+                    buffer.put((byte) (0x80 | c & 0x3F));
+                } else if (!Character.isSurrogate(c)) {
+                    buffer.put((byte) (0xE0 | c >> 12));
+                    buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put((byte) (0xF0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint & 0x3F));
+                } else {
+                    buffer.put((byte) '?');
+                }
+            }
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    /**
+     * Gets a string put by putString() at the buffer position.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to read from.
+     * @return the string, may be null.
+     * @throws java.nio.BufferUnderflowException if the buffer holds less than the length of the string, with the position
+     * left unchanged.
+     * @throws IllegalArgumentException if the length is negative but not -1, with the position left unchanged.
+     */
+    public static String getString(ByteBuffer buffer) {
+        final int start = buffer.position();
+        final int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            buffer.position(start);
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        if (length > buffer.remaining()) {
+            buffer.position(start);
+            throw new BufferUnderflowException();
+        }
+        final int offset = buffer.position();
+        final String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + offset, length, UTF_8);
+        } else {
+            final ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(offset + length);
+            value = UTF_8.decode(bytes).toString();
+        }
+        buffer.position(offset + length);
+        return value;
+    }
+
+    /**
+     * Puts a UUID at the buffer position as its raw 128 bits.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to write to.
+     * @param id the UUID.
+     */
+    public static void putUUID(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets a UUID put by putUUID() at the buffer position.
+     *
+     * @param buffer the {@link java.nio.ByteBuffer} to read from.
+     * @return the UUID.
+     */
+    public static UUID getUUID(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class StringDictionaryTest {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final StringDictionary writer = new StringDictionary(2, 8);
+    private final StringDictionary reader = new StringDictionary(2, 8);
+
+    private DataInputStream input() {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private int header(int index) throws IOException {
+        final DataInputStream in = input();
+        for (int i = 0; i < index; i++) {
+            reader.readString(in);
+        }
+        return WireFormat.readVarInt(in);
+    }
+
+    @Test
+    public void readerAgreesWithWriter() throws IOException {
+        final String[] values = {"a", "b", "a", null, "a", "c", "b", "longer than eight", "c", "", ""};
+        for (String value : values) {
+            writer.writeString(out, value);
+        }
+        final DataInputStream in = input();
+        for (String value : values) {
+            assertEquals(value, reader.readString(in));
+        }
+        assertEquals(0, in.available());
+        assertEquals(writer.getHitCount(), reader.getReadHitCount());
+        assertEquals(writer.getMissCount(), reader.getReadMissCount());
+        assertEquals(0, reader.getHitCount());
+        assertEquals(0, writer.getReadMissCount());
+    }
+
+    @Test
+    public void repeatedStringIsSentAsId() throws IOException {
+        writer.writeString(out, "frames");
+        final int defined = bytes.size();
+        writer.writeString(out, "frames");
+        assertEquals(1, bytes.size() - defined);
+        assertEquals(2, header(0));
+        assertEquals(3, header(1));
+
+        final DataInputStream in = input();
+        assertSame(reader.readString(in), reader.readString(in));
+        assertEquals(1, writer.getHitCount());
+        assertEquals(1, writer.getMissCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvictedAndItsIdReused() throws IOException {
+        writer.writeString(out, "a"); // id 0
+        writer.writeString(out, "b"); // id 1
+        writer.writeString(out, "a"); // a is now more recent than b
+        writer.writeString(out, "c"); // evicts b, reuses id 1
+        writer.writeString(out, "a"); // still held at id 0
+        writer.writeString(out, "b"); // evicts c, reuses id 1 again
+        assertEquals(2, writer.size());
+        assertEquals(2 + 2 * 0, header(0));
+        assertEquals(2 + 2 * 1, header(1));
+        assertEquals(3 + 2 * 0, header(2));
+        assertEquals(2 + 2 * 1, header(3));
+        assertEquals(3 + 2 * 0, header(4));
+        assertEquals(2 + 2 * 1, header(5));
+
+        final DataInputStream in = input();
+        for (String value : new String[] {"a", "b", "a", "c", "a", "b"}) {
+            assertEquals(value, reader.readString(in));
+        }
+    }
+
+    @Test
+    public void longStringIsSentAsLiteral() throws IOException {
+        writer.writeString(out, "longer than eight");
+        writer.writeString(out, "longer than eight");
+        assertEquals(0, writer.size());
+        assertEquals(1, header(0));
+        assertEquals(1, header(1));
+    }
+
+    @Test
+    public void nullIsNotStored() throws IOException {
+        writer.writeString(out, null);
+        assertEquals(1, bytes.size());
+        assertEquals(0, writer.size());
+        assertNull(reader.readString(input()));
+    }
+
+    @Test
+    public void internReturnsHeldInstance() throws IOException {
+        final String held = "frames";
+        writer.writeString(out, held);
+        assertSame(held, writer.intern(new String("frames")));
+        assertEquals("other", writer.intern("other"));
+        assertNull(writer.intern(null));
+    }
+
+    @Test
+    public void internReturnsReceivedInstance() throws IOException {
+        writer.writeString(out, "frames");
+        writer.writeString(out, "c");
+        writer.writeString(out, "d"); // evicts frames, redefines its id
+        final DataInputStream in = input();
+        final String received = reader.readString(in);
+        assertSame(received, reader.intern(new String("frames")));
+        reader.readString(in);
+        reader.readString(in);
+        assertEquals(2, reader.getReadSize());
+        assertEquals(0, reader.size());
+        assertSame(reader.readString(input()), reader.intern(new String("frames")));
+    }
+
+    @Test(expected = IOException.class)
+    public void nullDefinition() throws IOException {
+        WireFormat.writeVarInt(out, 2 + 2 * 0);
+        WireFormat.writeString(out, null);
+        reader.readString(input());
+    }
+
+    @Test(expected = IOException.class)
+    public void undefinedId() throws IOException {
+        WireFormat.writeVarInt(out, 3 + 2 * 1);
+        reader.readString(input());
+    }
+
+    @Test(expected = IOException.class)
+    public void idBeyondSize() throws IOException {
+        WireFormat.writeVarInt(out, 2 + 2 * 2);
+        WireFormat.writeString(out, "x");
+        reader.readString(input());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyDictionary() {
+        new StringDictionary(0, 8);
+    }
+}
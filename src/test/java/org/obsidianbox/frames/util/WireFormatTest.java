@@ -0,0 +1,379 @@
+/**
+ * This file is part of Frames, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2014 ObsidianBox <http://obsidianbox.org/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.obsidianbox.frames.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.obsidianbox.frames.GuiFactory;
+
+public class WireFormatTest {
+    private static final int[] INTS = {0, 1, 63, 64, 127, 128, 255, 16383, 16384, -1, -64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    private static final long[] LONGS = {0, 1, 127, 128, Integer.MAX_VALUE, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    private DataInputStream input() {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void varIntRoundTrip() throws IOException {
+        for (int value : INTS) {
+            WireFormat.writeVarInt(out, value);
+        }
+        final DataInputStream in = input();
+        for (int value : INTS) {
+            assertEquals(value, WireFormat.readVarInt(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void varIntLength() throws IOException {
+        WireFormat.writeVarInt(out, 127);
+        assertEquals(1, bytes.size());
+        WireFormat.writeVarInt(out, 128);
+        assertEquals(3, bytes.size());
+        WireFormat.writeVarInt(out, -1);
+        assertEquals(8, bytes.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void varIntTooLong() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            out.writeByte(0x80);
+        }
+        WireFormat.readVarInt(input());
+    }
+
+    @Test
+    public void varLongRoundTrip() throws IOException {
+        for (long value : LONGS) {
+            WireFormat.writeVarLong(out, value);
+        }
+        final DataInputStream in = input();
+        for (long value : LONGS) {
+            assertEquals(value, WireFormat.readVarLong(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void signedVarIntRoundTrip() throws IOException {
+        for (int value : INTS) {
+            WireFormat.writeSignedVarInt(out, value);
+        }
+        final DataInputStream in = input();
+        for (int value : INTS) {
+            assertEquals(value, WireFormat.readSignedVarInt(in));
+        }
+    }
+
+    @Test
+    public void signedVarIntKeepsSmallNegativesShort() throws IOException {
+        WireFormat.writeSignedVarInt(out, -64);
+        assertEquals(1, bytes.size());
+        WireFormat.writeSignedVarInt(out, 63);
+        assertEquals(2, bytes.size());
+    }
+
+    @Test
+    public void flags() {
+        int flags = 0;
+        flags = WireFormat.setFlag(flags, 0, true);
+        flags = WireFormat.setFlag(flags, 31, true);
+        flags = WireFormat.setFlag(flags, 5, false);
+        assertTrue(WireFormat.getFlag(flags, 0));
+        assertTrue(WireFormat.getFlag(flags, 31));
+        assertFalse(WireFormat.getFlag(flags, 5));
+        flags = WireFormat.setFlag(flags, 0, false);
+        assertFalse(WireFormat.getFlag(flags, 0));
+    }
+
+    @Test
+    public void stringRoundTrip() throws IOException {
+        final String[] values = {null, "", "frames", "héllo ☃ 😀"};
+        for (String value : values) {
+            WireFormat.writeString(out, value);
+        }
+        final DataInputStream in = input();
+        for (String value : values) {
+            assertEquals(value, WireFormat.readString(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedString() throws IOException {
+        WireFormat.writeString(out, "frames");
+        final byte[] data = Arrays.copyOf(bytes.toByteArray(), 4);
+        WireFormat.readString(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    @Test(expected = IOException.class)
+    public void oversizedStringLength() throws IOException {
+        WireFormat.writeVarInt(out, WireFormat.MAX_STRING_BYTES + 2);
+        WireFormat.readString(input());
+    }
+
+    @Test(expected = IOException.class)
+    public void negativeStringLength() throws IOException {
+        WireFormat.writeVarInt(out, -1);
+        WireFormat.readString(input());
+    }
+
+    @Test(expected = IOException.class)
+    public void oversizedStringIsNotWritten() throws IOException {
+        WireFormat.writeString(out, new String(new char[WireFormat.MAX_STRING_BYTES + 1]));
+    }
+
+    @Test
+    public void uuidRoundTrip() throws IOException {
+        final UUID id = UUID.randomUUID();
+        WireFormat.writeUUID(out, id);
+        assertEquals(16, bytes.size());
+        assertEquals(id, WireFormat.readUUID(input()));
+    }
+
+    @Test
+    public void colorRoundTrip() {
+        final GuiFactory factory = colorFactory();
+        final Color color = factory.createColor(1, 128, 255, 200);
+        final int packed = WireFormat.packColor(color);
+        assertEquals(0xC80180FF, packed);
+        final Color unpacked = WireFormat.unpackColor(packed, factory);
+        assertEquals(1, unpacked.getR());
+        assertEquals(128, unpacked.getG());
+        assertEquals(255, unpacked.getB());
+        assertEquals(200, unpacked.getA());
+    }
+
+    @Test
+    public void skipFieldOfEachWireType() throws IOException {
+        WireFormat.writeVarInt(out, WireFormat.tag(1, WireFormat.WIRE_VARINT));
+        WireFormat.writeVarLong(out, Long.MIN_VALUE);
+        WireFormat.writeVarInt(out, WireFormat.tag(2, WireFormat.WIRE_FIXED64));
+        out.writeLong(42);
+        WireFormat.writeVarInt(out, WireFormat.tag(3, WireFormat.WIRE_LENGTH));
+        WireFormat.writeVarInt(out, 5);
+        out.writeInt(7);
+        WireFormat.writeVarInt(out, WireFormat.tag(4, WireFormat.WIRE_LENGTH));
+        WireFormat.writeVarInt(out, 0);
+        WireFormat.writeVarInt(out, WireFormat.tag(5, WireFormat.WIRE_STRING_LIST));
+        WireFormat.writeVarInt(out, 3);
+        WireFormat.writeString(out, "a");
+        WireFormat.writeString(out, null);
+        WireFormat.writeVarInt(out, WireFormat.tag(6, WireFormat.WIRE_STRING_LIST));
+        WireFormat.writeVarInt(out, 0);
+        WireFormat.writeVarInt(out, WireFormat.tag(7, WireFormat.WIRE_FIXED32));
+        out.writeFloat(1.5f);
+        WireFormat.writeVarInt(out, WireFormat.tag(8, WireFormat.WIRE_STRING));
+        WireFormat.writeString(out, "b");
+        WireFormat.writeVarInt(out, 99);
+
+        final DataInputStream in = input();
+        for (int id = 1; id <= 8; id++) {
+            final int tag = WireFormat.readVarInt(in);
+            assertEquals(id, tag >>> 3);
+            WireFormat.skipField(in, tag);
+        }
+        assertEquals(99, WireFormat.readVarInt(in));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void skipFieldKeepsDictionaryDefinitions() throws IOException {
+        final StringDictionary writer = new StringDictionary(4, 16);
+        WireFormat.writeVarInt(out, WireFormat.tag(1, WireFormat.WIRE_STRING));
+        WireFormat.writeString(out, "skipped", writer);
+        WireFormat.writeVarInt(out, WireFormat.tag(2, WireFormat.WIRE_STRING_LIST));
+        WireFormat.writeVarInt(out, 3);
+        WireFormat.writeString(out, "item", writer);
+        WireFormat.writeString(out, "skipped", writer);
+        WireFormat.writeString(out, "skipped", writer);
+        WireFormat.writeString(out, "item", writer);
+
+        final StringDictionary reader = new StringDictionary(4, 16);
+        final DataInputStream in = input();
+        WireFormat.skipField(in, WireFormat.readVarInt(in), reader);
+        WireFormat.skipField(in, WireFormat.readVarInt(in), reader);
+        assertEquals("skipped", WireFormat.readString(in, reader));
+        assertEquals("item", WireFormat.readString(in, reader));
+        assertEquals(0, in.available());
+    }
+
+    @Test(expected = IOException.class)
+    public void skipFieldOfOversizedLength() throws IOException {
+        WireFormat.writeVarInt(out, WireFormat.MAX_FIELD_BYTES + 2);
+        WireFormat.skipField(input(), WireFormat.tag(1, WireFormat.WIRE_LENGTH));
+    }
+
+    @Test(expected = IOException.class)
+    public void skipFieldOfNegativeLength() throws IOException {
+        WireFormat.writeVarInt(out, -1);
+        WireFormat.skipField(input(), WireFormat.tag(1, WireFormat.WIRE_LENGTH));
+    }
+
+    @Test(expected = EOFException.class)
+    public void skipFieldOfTruncatedLength() throws IOException {
+        WireFormat.writeVarInt(out, 10 + 1);
+        out.write(new byte[4]);
+        WireFormat.skipField(input(), WireFormat.tag(1, WireFormat.WIRE_LENGTH));
+    }
+
+    @Test(expected = IOException.class)
+    public void skipFieldOfUnknownWireType() throws IOException {
+        WireFormat.skipField(input(), WireFormat.tag(1, 7));
+    }
+
+    @Test
+    public void bufferStringRoundTrip() {
+        final String[] values = {null, "", "frames", "h\u00e9llo \u2603 \uD83D\uDE00"};
+        for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64)}) {
+            for (String value : values) {
+                WireFormat.putString(buffer, value);
+            }
+            buffer.flip();
+            for (String value : values) {
+                assertEquals(value, WireFormat.getString(buffer));
+            }
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    @Test
+    public void bufferStringMatchesWriteString() throws IOException {
+        final String value = "h\u00e9llo \u2603 \uD83D\uDE00";
+        WireFormat.writeString(out, value);
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireFormat.putString(buffer, value);
+        final byte[] expected = Arrays.copyOfRange(bytes.toByteArray(), 1, bytes.size());
+        assertArrayEquals(expected, Arrays.copyOfRange(buffer.array(), 4, buffer.position()));
+    }
+
+    @Test
+    public void bufferStringReplacesLoneSurrogates() throws IOException {
+        final String[] values = {"ab\uD800cd", "ab\uDC00cd", "ab\uD800", "\uDC00\uD800"};
+        for (String value : values) {
+            final ByteBuffer buffer = ByteBuffer.allocate(64);
+            WireFormat.putString(buffer, value);
+            buffer.flip();
+            bytes.reset();
+            WireFormat.writeString(out, value);
+            assertEquals(WireFormat.readString(input()), WireFormat.getString(buffer));
+        }
+    }
+
+    @Test
+    public void bufferStringOverflowKeepsPosition() {
+        for (int capacity = 0; capacity < 10; capacity++) {
+            final ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                WireFormat.putString(buffer, "frames");
+                fail("Expected overflow at capacity " + capacity);
+            } catch (BufferOverflowException e) {
+                assertEquals(0, buffer.position());
+            }
+        }
+        final ByteBuffer retry = ByteBuffer.allocate(10);
+        WireFormat.putString(retry, "frames");
+        assertEquals(10, retry.position());
+    }
+
+    @Test
+    public void bufferStringUnderflowKeepsPosition() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        WireFormat.putString(buffer, "frames");
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        try {
+            WireFormat.getString(buffer);
+            fail("Expected underflow");
+        } catch (BufferUnderflowException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void bufferStringRejectsNegativeLength() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(-2).flip();
+        try {
+            WireFormat.getString(buffer);
+            fail("Expected invalid length");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    private static GuiFactory colorFactory() {
+        return (GuiFactory) Proxy.newProxyInstance(WireFormatTest.class.getClassLoader(), new Class<?>[] {GuiFactory.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, final Object[] args) {
+                if (!method.getName().equals("createColor") || args.length != 4) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                return Proxy.newProxyInstance(WireFormatTest.class.getClassLoader(), new Class<?>[] {Color.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] ignored) {
+                        switch (method.getName()) {
+                            case "getR":
+                                return args[0];
+                            case "getG":
+                                return args[1];
+                            case "getB":
+                                return args[2];
+                            case "getA":
+                                return args[3];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+            }
+        });
+    }
+}